@@ -0,0 +1,127 @@
+package game;
+
+import java.util.ArrayList;
+
+/** An AutopilotController plays the game by itself, the way a steady player would: it keeps its distance from the
+ * nearest enemy, picks up upgrades when nothing is close, aims at the nearest enemy a little ahead of where it is
+ * going, fires every few ticks rather than every tick, and reloads when the clip is empty or when there is a quiet
+ * moment. It makes no random choices, so a game it plays on a given seed always goes the same way.
+ *
+ * Used with a HeadlessCanvas for load and soak testing (see SoakTest and BatchSimulator).
+ */
+class AutopilotController implements PlayerController {
+    private static final int DANGER_DISTANCE = 200; // Back away from enemies closer than this.
+    private static final int QUIET_DISTANCE = 500; // With no enemy closer than this, top up a low clip.
+    private static final int LOW_AMMO = 10; // Fewer bullets than this is worth reloading in a quiet moment.
+    private static final int HOME_X = 250; // Where to wait, far from where enemies spawn.
+    private static final int BULLET_SPEED = 20; // How far a fired bullet moves per tick.
+
+    // Instance variables
+    private final int fireInterval; // Ticks between shots.
+    private int ticks; // The number of turns taken.
+
+    /** Constructs an autopilot that fires every third tick. */
+    public AutopilotController() {
+        this(3);
+    }
+
+    /** Constructs an autopilot that fires every fireInterval ticks. */
+    public AutopilotController(int fireInterval) {
+        if (fireInterval <= 0) throw new IllegalArgumentException("fireInterval must be positive");
+        this.fireInterval = fireInterval;
+    }
+
+    /** Ignores the input and plays one tick. */
+    public void takeTurn(Game game, InputSnapshot input) {
+        ticks++;
+        Bee bee = game.getMainBee();
+        EntityStore enemies = game.getEnemies();
+        int beeX = bee.getCenterX(), beeY = bee.getCenterY();
+
+        int nearest = -1;
+        long nearestDistance = Long.MAX_VALUE; // squared
+        for (int i = 0; i < enemies.size(); i++) {
+            long dx = enemies.x[i] - beeX, dy = enemies.y[i] - beeY;
+            long distance = dx * dx + dy * dy;
+            if (distance < nearestDistance) {
+                nearest = i;
+                nearestDistance = distance;
+            }
+        }
+
+        // Move: away from danger, else to an upgrade, else back home level with the nearest enemy.
+        if (nearest >= 0 && nearestDistance < (long) DANGER_DISTANCE * DANGER_DISTANCE) {
+            moveAwayFrom(bee, enemies.x[nearest], enemies.y[nearest]);
+        }
+        else {
+            Upgrade upgrade = nearestUpgrade(game.getUpgrades(), beeX, beeY);
+            if (upgrade != null) {
+                moveTowards(bee, upgrade.getCenterX(), upgrade.getCenterY());
+            }
+            else {
+                moveTowards(bee, HOME_X, nearest >= 0 ? enemies.y[nearest] : beeY);
+            }
+        }
+
+        // Fire at where the nearest enemy will be when the bullet gets there.
+        if (nearest >= 0 && ticks % fireInterval == 0 && bee.getAmmo() > 0 && bee.getReloadCounter() == 0) {
+            int enemyX = enemies.x[nearest], enemyY = enemies.y[nearest];
+            int flight = (int) (Math.sqrt(nearestDistance) / BULLET_SPEED); // ticks until the bullet arrives
+            int lead = Enemy.STEP * flight;
+            bee.fireWithMouse(enemyX + Integer.signum(beeX - enemyX) * Math.min(lead, Math.abs(beeX - enemyX)),
+                    enemyY + Integer.signum(beeY - enemyY) * Math.min(lead, Math.abs(beeY - enemyY)));
+        }
+
+        // Reload when empty, or top up when nothing is close.
+        boolean quiet = nearest < 0 || nearestDistance > (long) QUIET_DISTANCE * QUIET_DISTANCE;
+        if (bee.canReload() && (bee.getAmmo() == 0 || (quiet && bee.getAmmo() < LOW_AMMO))) {
+            bee.reload();
+        }
+    }
+
+    /** Returns the upgrade closest to (x, y), or null if there are none. */
+    private static Upgrade nearestUpgrade(ArrayList<Upgrade> upgrades, int x, int y) {
+        Upgrade nearest = null;
+        long nearestDistance = Long.MAX_VALUE;
+        for (Upgrade upgrade : upgrades) {
+            long dx = upgrade.getCenterX() - x, dy = upgrade.getCenterY() - y;
+            if (dx * dx + dy * dy < nearestDistance) {
+                nearest = upgrade;
+                nearestDistance = dx * dx + dy * dy;
+            }
+        }
+        return nearest;
+    }
+
+    /** Moves the bee a step along each axis towards (x, y), unless it is already within half a step. */
+    private static void moveTowards(Bee bee, int x, int y) {
+        if (x > bee.getCenterX() + 10) {
+            bee.moveRight();
+        }
+        else if (x < bee.getCenterX() - 10) {
+            bee.moveLeft();
+        }
+        if (y > bee.getCenterY() + 10) {
+            bee.moveDown();
+        }
+        else if (y < bee.getCenterY() - 10) {
+            bee.moveUp();
+        }
+    }
+
+    /** Moves the bee a step along each axis away from (x, y). The bee stops at the walls on its own. */
+    private static void moveAwayFrom(Bee bee, int x, int y) {
+        if (x >= bee.getCenterX()) {
+            bee.moveLeft();
+        }
+        else {
+            bee.moveRight();
+        }
+        if (y >= bee.getCenterY()) {
+            bee.moveUp();
+        }
+        else {
+            bee.moveDown();
+        }
+    }
+}
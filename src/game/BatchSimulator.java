@@ -0,0 +1,158 @@
+package game;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/** Plays many whole games at once, for balancing the game and planning capacity. Each game is seeded (the first
+ * seed, then the next, and so on) so any one of them can be played again, is played by an AutopilotController on a
+ * HeadlessCanvas that draws nothing, and ticks straight through without waiting (see Game.simulate). The games are
+ * spread over the cores by a ForkJoinPool. Games share nothing that changes, so they never wait on each other; how
+ * far the rate grows with more threads on a given machine is what running with several thread counts measures.
+ *
+ * Usage: java -Djava.awt.headless=true game.BatchSimulator [games] [threadCounts] [firstSeed]
+ * where threadCounts is comma separated, e.g. 1,2,4,8, to see how the rate scales; by default every core is used.
+ * For each thread count the same games are played again, and the rate, the outcomes and the spread of scores are
+ * printed.
+ */
+public class BatchSimulator {
+    private static final int WIDTH = 1280, HEIGHT = 720; // The size of the game RunDefaultGame plays.
+    private static final int MAX_TICKS = 20 * 60 * 10; // Give up on a game after ten minutes of game time.
+
+    // Instance variables
+    private final int games; // The number of games to play.
+    private final long firstSeed; // The seed of the first game; the rest follow on from it.
+    private final int[] ticks; // How many ticks each game ran for.
+    private final int[] points; // What each game scored.
+    private final byte[] outcome; // How each game ended: WON, DIED or UNFINISHED.
+
+    private static final byte WON = 0, DIED = 1, UNFINISHED = 2;
+
+    /** Constructs a batch of the given number of games, seeded from firstSeed upwards. */
+    public BatchSimulator(int games, long firstSeed) {
+        this.games = games;
+        this.firstSeed = firstSeed;
+        ticks = new int[games];
+        points = new int[games];
+        outcome = new byte[games];
+    }
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int[] threadCounts = args.length > 1 ? parseCounts(args[1])
+                : new int[] { Runtime.getRuntime().availableProcessors() };
+        long firstSeed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+
+        BatchSimulator batch = new BatchSimulator(games, firstSeed);
+        batch.run(threadCounts[0], Math.min(games, 200)); // warm up the JIT first
+        double oneThreadRate = 0;
+        for (int threads : threadCounts) {
+            long elapsed = batch.run(threads, games);
+            double rate = batch.getTotalTicks() / (elapsed / 1e9);
+            if (threads == 1) {
+                oneThreadRate = rate;
+            }
+            System.out.printf("%d games on %d threads in %.2f s: %.0f ticks/s (%.0f per thread)%s%n",
+                    games, threads, elapsed / 1e9, rate, rate / threads,
+                    oneThreadRate > 0 ? String.format(", %.2fx one thread", rate / oneThreadRate) : "");
+        }
+        batch.printReport();
+    }
+
+    /** Plays the first count games of the batch on a pool of the given number of threads and returns how long it
+     * took in nanoseconds.
+     */
+    public long run(int threads, int count) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            long start = System.nanoTime();
+            pool.invoke(new Games(this, 0, count));
+            return System.nanoTime() - start;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** Plays game number i of the batch and keeps how it went. */
+    private void play(int i) {
+        Game game = new Game(new HeadlessCanvas(WIDTH, HEIGHT, false), firstSeed + i);
+        game.setController(new AutopilotController());
+        ticks[i] = game.simulate(MAX_TICKS);
+        points[i] = game.getPoints();
+        outcome[i] = !game.isGameOver() ? UNFINISHED : game.didBeeDie() ? DIED : WON;
+    }
+
+    /** Returns the number of ticks run by every game in the batch together. */
+    public long getTotalTicks() {
+        long total = 0;
+        for (int t : ticks) {
+            total += t;
+        }
+        return total;
+    }
+
+    /** Prints how the games ended, how long they lasted and the spread of their scores. */
+    public void printReport() {
+        int[] ended = new int[3];
+        for (byte o : outcome) {
+            ended[o]++;
+        }
+        System.out.printf("won %.1f%%, died %.1f%%, unfinished after %d ticks %.1f%%%n",
+                100.0 * ended[WON] / games, 100.0 * ended[DIED] / games, MAX_TICKS, 100.0 * ended[UNFINISHED] / games);
+        printSpread("ticks per game", ticks);
+        printSpread("points", points);
+    }
+
+    private void printSpread(String name, int[] values) {
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        double mean = 0;
+        for (int v : sorted) {
+            mean += v;
+        }
+        mean /= sorted.length;
+        System.out.printf("%-15s min %d, p10 %d, median %d, mean %.1f, p90 %d, max %d%n", name, sorted[0],
+                percentile(sorted, 10), percentile(sorted, 50), mean, percentile(sorted, 90), sorted[sorted.length - 1]);
+    }
+
+    private static int percentile(int[] sorted, int p) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * p / 100)];
+    }
+
+    private static int[] parseCounts(String list) {
+        String[] parts = list.split(",");
+        int[] counts = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            counts[i] = Integer.parseInt(parts[i].trim());
+        }
+        return counts;
+    }
+
+    /** Plays a range of a batch's games, splitting it in half until each task is one game, so idle threads can
+     * steal whatever is left. Each game writes only its own slot of the result arrays.
+     */
+    private static class Games extends RecursiveAction {
+        private static final long serialVersionUID = 1L; // Tasks are never serialized, but RecursiveAction can be.
+
+        // Instance variables
+        private final BatchSimulator batch; // The batch the games belong to.
+        private final int from, to; // The games to play, from up to but not including to.
+
+        public Games(BatchSimulator batch, int from, int to) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                batch.play(from);
+            }
+            else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Games(batch, from, middle), new Games(batch, middle, to));
+            }
+        }
+    }
+}
@@ -2,13 +2,14 @@ package game;
 
 import java.awt.Color;
 import java.lang.Math;
-import java.util.ArrayList;
 import java.util.Objects;
 
 /** This class represents the "good" object of the game. The player will control this object. This class inherits the class GameObject.*/
 public class Bee extends GameObject {
     // Instance variables
-    private ArrayList<Bullet> bullets; // Arraylist for all active bullets in game.
+    private static final Bullet BULLET = new Bullet(); // What every bullet looks like and how fast it starts moving.
+
+    private EntityStore bullets; // All active bullets in game.
     private int ammo; // Keeps track of bullets left in clip.
     private boolean reloadedStatus; // If true, print "RELOAD".
     private int reloadCounter; // The reload counter to prevent firing during reloading.
@@ -20,7 +21,7 @@ public class Bee extends GameObject {
         setImageFilename("pistolBee.png");
         height = 100;
         width = 100;
-        bullets = new ArrayList<>();
+        bullets = new EntityStore(BULLET);
         ammo = 30;
         reloadedStatus = true;
         reloadCounter = 0;
@@ -76,10 +77,8 @@ public class Bee extends GameObject {
      */
     public void fire() {
         if (ammo > 0 && reloadCounter == 0) {
-            Bullet z = new Bullet();
-            z.setLocationX(this.getCenterX());
-            z.setLocationY(this.getCenterY());
-            bullets.add(z);
+            int z = bullets.add(0, this.getCenterX(), this.getCenterY());
+            bullets.setVelocity(z, BULLET.getXVelocity(), BULLET.getYVelocity());
             ammo--;
         }
         else {
@@ -92,13 +91,11 @@ public class Bee extends GameObject {
      */
     public void fireWithMouse(double mouseX, double mouseY) {
         if (ammo > 0 && reloadCounter == 0) {
-            Bullet z = new Bullet();
             double angle = Math.atan2(mouseX - getCenterX(), mouseY - getCenterY());
-            z.setLocationX(this.getCenterX());
-            z.setLocationY(this.getCenterY());
-            z.setYVelocity(Math.cos(angle) * z.getBaseVelocity()); // Geometry to get correct y velocity.
-            z.setXVelocity(Math.sin(angle) * z.getBaseVelocity()); // Geometry to get correct x velocity.
-            bullets.add(z);
+            int z = bullets.add(0, this.getCenterX(), this.getCenterY());
+            bullets.setVelocity(z,
+                    Math.sin(angle) * BULLET.getBaseVelocity(),  // Geometry to get correct x velocity.
+                    Math.cos(angle) * BULLET.getBaseVelocity()); // Geometry to get correct y velocity.
             ammo--;
         }
         else {
@@ -106,8 +103,8 @@ public class Bee extends GameObject {
         }
     }
 
-    /** Getter function for the bullets array list. */
-    public ArrayList<Bullet> getBullets() {
+    /** Getter function for the bullets store. */
+    public EntityStore getBullets() {
         return bullets;
     }
 
@@ -116,12 +113,16 @@ public class Bee extends GameObject {
         reloadCounter = 40;
     }
 
+    /** Returns true if the gun can be reloaded now: it isn't being reloaded already and the clip isn't full. */
+    public boolean canReload() {
+        return reloadCounter == 0 && ammo < 30;
+    }
+
     /** Draws the bee on the canvas along with its bullets. */
-    public void draw(SimpleCanvas canvas) {
+    public void draw(GameCanvas canvas) {
         canvas.drawImage(getLeftX(), getTopY(), imageFilename, width, height);
         for (int w = 0; w < bullets.size(); w++) {
-            Bullet currentBullet = bullets.get(w);
-            currentBullet.draw(canvas);
+            canvas.drawImage(bullets.getLeftX(w), bullets.getTopY(w), bullets.getImageFilename(w), bullets.getWidth(w), bullets.getHeight(w));
         }
     }
 
@@ -20,8 +20,15 @@ public class Bullet extends GameObject {
         xVelocity = 20.0;
     }
 
+    /** Resets the bullet to fly straight right at its base velocity, like a new bullet. */
+    public void reset() {
+        super.reset();
+        xVelocity = baseVelocity;
+        yVelocity = 0.0;
+    }
+
     /** Draws the bullet instance onto the given canvas parameter. */
-    public void draw(SimpleCanvas canvas) {
+    public void draw(GameCanvas canvas) {
         canvas.drawImage(getLeftX(), getTopY(), imageFilename, width, height);
     }
 
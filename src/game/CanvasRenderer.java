@@ -0,0 +1,347 @@
+package game;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/** A CanvasRenderer carries out drawing commands on an image. SimpleCanvas records each frame into a
+ * DrawCommandBuffer and replays the whole buffer through its renderer on the event dispatch thread.
+ * A renderer is not thread safe; it must only be used by one thread at a time.
+ *
+ * All coordinates are canvas coordinates. If the image is a whole number of times the size of the canvas, as on a
+ * HiDPI screen, drawing is scaled up to fill it, and each canvas pixel covers a square of image pixels.
+ */
+class CanvasRenderer {
+    // Instance variables
+    private final BufferedImage image; // The image being drawn on.
+    private final Graphics2D graphics; // The graphics used to draw on the image.
+    private final Graphics2D deviceGraphics; // Draws on the image in image pixels, for images made at the scale.
+    private final int width, height; // The size of the canvas in pixels.
+    private final int scale; // How many image pixels across one canvas pixel covers.
+    private final boolean quality; // Whether shapes and text are antialiased.
+    private Color bgColor; // The color the canvas is cleared to.
+    private int[] pixels; // The array behind the image, once pixels have been read or set directly; see pixels().
+
+    /** Constructs a renderer that draws on the given image, which holds a canvas of the given width and height,
+     * with antialiasing and quality rendering.
+     */
+    public CanvasRenderer(BufferedImage image, int width, int height) {
+        this(image, width, height, true);
+    }
+
+    /** Constructs a renderer that draws on the given image, which holds a canvas of the given width and height. If
+     * quality is true, shapes and text are antialiased and scaled images are smoothed; otherwise drawing favors speed.
+     */
+    public CanvasRenderer(BufferedImage image, int width, int height, boolean quality) {
+        this.image = image;
+        this.width = width;
+        this.height = height;
+        scale = Math.max(1, image.getWidth() / Math.max(1, width));
+        this.quality = quality;
+        bgColor = Color.WHITE;
+        graphics = image.createGraphics();
+        if (scale != 1) {
+            graphics.scale(scale, scale);
+        }
+        graphics.addRenderingHints(createHints(quality));
+        deviceGraphics = scale == 1 ? graphics : image.createGraphics();
+
+        // clear screen
+        graphics.setColor(bgColor);
+        graphics.fillRect(0, 0, width, height);
+        graphics.setColor(Color.BLACK);
+    }
+
+    /** Replays every command recorded in the buffer onto the image. */
+    public void execute(DrawCommandBuffer commands) {
+        commands.replay(this);
+    }
+
+    /** Returns rendering hints for quality or for speed, for drawing on or copying the canvas. */
+    public static RenderingHints createHints(boolean quality) {
+        RenderingHints hints = new RenderingHints(RenderingHints.KEY_ANTIALIASING,
+                quality ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
+        hints.put(RenderingHints.KEY_RENDERING,
+                quality ? RenderingHints.VALUE_RENDER_QUALITY : RenderingHints.VALUE_RENDER_SPEED);
+        hints.put(RenderingHints.KEY_INTERPOLATION,
+                quality ? RenderingHints.VALUE_INTERPOLATION_BILINEAR : RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        return hints;
+    }
+
+    /** Getter function for how many image pixels across one canvas pixel covers. */
+    public int getScale() {
+        return scale;
+    }
+
+    /** Getter function for the image being drawn on. */
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    /** Fills the canvas with the background color. */
+    public void clear() {
+        Color saveColor = graphics.getColor();
+        graphics.setColor(bgColor);
+        graphics.fillRect(0, 0, width, height);
+        graphics.setColor(saveColor);
+    }
+
+    /** Fills one rectangle of the canvas with the background color and the same part of a background image the size
+     * of the canvas, undoing whatever was drawn there since the background was.
+     */
+    public void restore(Image background, int x, int y, int width, int height) {
+        Color saveColor = graphics.getColor();
+        graphics.setColor(bgColor);
+        graphics.fillRect(x, y, width, height);
+        graphics.setColor(saveColor);
+        if (scale != 1 && background.getWidth(null) == this.width * scale) { // made at this scale, so copy it
+            int s = scale;
+            deviceGraphics.drawImage(background, s * x, s * y, s * (x + width), s * (y + height),
+                    s * x, s * y, s * (x + width), s * (y + height), null);
+            return;
+        }
+        graphics.drawImage(background, x, y, x + width, y + height, x, y, x + width, y + height, null);
+    }
+
+    public void drawOval(int x, int y, int width, int height) {
+        graphics.drawOval(x, y, width, height);
+    }
+
+    public void fillOval(int x, int y, int width, int height) {
+        graphics.fillOval(x, y, width, height);
+    }
+
+    public void drawRect(int x, int y, int width, int height) {
+        graphics.drawRect(x, y, width, height);
+    }
+
+    public void fillRect(int x, int y, int width, int height) {
+        graphics.fillRect(x, y, width, height);
+    }
+
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        graphics.drawLine(x1, y1, x2, y2);
+    }
+
+    public void drawPolygon(int[] xPoints, int[] yPoints) {
+        graphics.drawPolygon(xPoints, yPoints, xPoints.length);
+    }
+
+    public void fillPolygon(int[] xPoints, int[] yPoints) {
+        graphics.fillPolygon(xPoints, yPoints, xPoints.length);
+    }
+
+    /** Draws text with its lower left corner at (x, y) in the current font at the given size. */
+    public void drawString(int x, int y, String text, int fontSize) {
+        TextCache.TextImage drawn = findText(text, fontSize);
+        drawText(drawn, x, y - drawn.ascent);
+    }
+
+    /** Draws text centered on (x, y) in the current font at the given size. */
+    public void drawStringCentered(int x, int y, String text, int fontSize) {
+        TextCache.TextImage drawn = findText(text, fontSize);
+        drawText(drawn, x - drawn.width / 2, y + drawn.height / 2 - drawn.ascent / 2 - drawn.ascent);
+    }
+
+    /** Returns the text as drawn at the given size in the current font and color, from the shared TextCache. The
+     * sized font becomes the current font, as if the text had been drawn with it.
+     */
+    private TextCache.TextImage findText(String text, int fontSize) {
+        Font currentFont = graphics.getFont();
+        Font font = FontCache.shared().get(currentFont.getFontName(), currentFont.getStyle(), fontSize);
+        graphics.setFont(font);
+        return TextCache.shared().get(text, font, graphics.getColor().getRGB(), scale, quality);
+    }
+
+    /** Copies drawn text onto the canvas with the top of its line at (x, y). */
+    private void drawText(TextCache.TextImage drawn, int x, int y) {
+        int left = x - drawn.pad;
+        int top = y - drawn.pad;
+        BufferedImage text = drawn.image;
+        graphics.drawImage(text, left, top, left + text.getWidth() / scale, top + text.getHeight() / scale,
+                0, 0, text.getWidth(), text.getHeight(), null);
+    }
+
+    public void setLineThickness(int size) {
+        graphics.setStroke(new BasicStroke(size));
+    }
+
+    /** Draws an image at its own size with its top left corner at (x, y). */
+    public void drawImage(Image image, int x, int y) {
+        graphics.drawImage(image, x, y, null);
+    }
+
+    /** Draws an image stretched to width by height canvas pixels with its top left corner at (x, y). An image made
+     * at this renderer's scale, scale times that size, is copied pixel for pixel instead of being stretched.
+     */
+    public void drawImage(Image image, int x, int y, int width, int height) {
+        if (image.getWidth(null) == width * scale && image.getHeight(null) == height * scale) {
+            deviceGraphics.drawImage(image, x * scale, y * scale, null);
+        }
+        else {
+            graphics.drawImage(image, x, y, width, height, null);
+        }
+    }
+
+    /** Draws an image over the whole canvas, stretched to fit unless it was made at this renderer's scale. */
+    public void drawBackground(Image image) {
+        drawImage(image, 0, 0, width, height);
+    }
+
+    public void setPenColor(Color color) {
+        graphics.setColor(color);
+    }
+
+    public void setBackgroundColor(Color color) {
+        bgColor = color;
+    }
+
+    /** Sets a single pixel of the canvas, which is every image pixel it covers. */
+    public void setPixel(int x, int y, int rgb) {
+        checkRegion(x, y, 1, 1);
+        int[] data = pixels();
+        if (data == null) {
+            image.setRGB(x * scale, y * scale, scale, scale, fill(rgb), 0, 0);
+            return;
+        }
+        int stride = image.getWidth();
+        int pixel = fromARGB(rgb);
+        for (int dy = 0; dy < scale; dy++) {
+            int row = (y * scale + dy) * stride + x * scale;
+            for (int dx = 0; dx < scale; dx++) {
+                data[row + dx] = pixel;
+            }
+        }
+    }
+
+    /** Returns a single pixel of the canvas, the top left image pixel it covers. */
+    public int getPixel(int x, int y) {
+        checkRegion(x, y, 1, 1);
+        int[] data = pixels();
+        if (data == null) {
+            return image.getRGB(x * scale, y * scale);
+        }
+        return toARGB(data[y * scale * image.getWidth() + x * scale]);
+    }
+
+    /** Copies a width by height region of the canvas, with its top left corner at (x, y), into argb row by row.
+     * Each canvas pixel is the top left image pixel it covers. Returns argb, or a new array if argb is null or too
+     * small to hold the region.
+     */
+    public int[] getPixels(int x, int y, int width, int height, int[] argb) {
+        checkRegion(x, y, width, height);
+        if (argb == null || argb.length < width * height) {
+            argb = new int[width * height];
+        }
+        int[] data = pixels();
+        if (data == null) {
+            for (int row = 0; row < height; row++) {
+                for (int col = 0; col < width; col++) {
+                    argb[row * width + col] = image.getRGB((x + col) * scale, (y + row) * scale);
+                }
+            }
+            return argb;
+        }
+        int stride = image.getWidth();
+        for (int row = 0; row < height; row++) {
+            int from = (y + row) * scale * stride + x * scale;
+            if (scale == 1 && image.getType() == BufferedImage.TYPE_INT_ARGB) {
+                System.arraycopy(data, from, argb, row * width, width);
+                continue;
+            }
+            for (int col = 0; col < width; col++) {
+                argb[row * width + col] = toARGB(data[from + col * scale]);
+            }
+        }
+        return argb;
+    }
+
+    /** Sets a width by height region of the canvas, with its top left corner at (x, y), from argb row by row. Each
+     * canvas pixel sets every image pixel it covers.
+     */
+    public void setPixels(int x, int y, int width, int height, int[] argb) {
+        checkPixels(x, y, width, height, argb, this.width, this.height);
+        int[] data = pixels();
+        if (data == null) {
+            for (int row = 0; row < height; row++) {
+                for (int col = 0; col < width; col++) {
+                    image.setRGB((x + col) * scale, (y + row) * scale, scale, scale, fill(argb[row * width + col]), 0, 0);
+                }
+            }
+            return;
+        }
+        int stride = image.getWidth();
+        for (int row = 0; row < height; row++) {
+            for (int dy = 0; dy < scale; dy++) {
+                int to = ((y + row) * scale + dy) * stride + x * scale;
+                if (scale == 1 && image.getType() == BufferedImage.TYPE_INT_ARGB) {
+                    System.arraycopy(argb, row * width, data, to, width);
+                    continue;
+                }
+                for (int col = 0; col < width; col++) {
+                    int rgb = fromARGB(argb[row * width + col]);
+                    for (int dx = 0; dx < scale; dx++) {
+                        data[to + col * scale + dx] = rgb;
+                    }
+                }
+            }
+        }
+    }
+
+    /** Returns the array of ints behind the image, or null if its pixels aren't stored as plain RGB or ARGB ints.
+     * Java2D stops keeping an image in video memory once its array has been taken, so this is only done the first
+     * time pixels are read or set, and canvases that never touch single pixels keep drawing at full speed.
+     */
+    private int[] pixels() {
+        if (pixels == null) {
+            int type = image.getType();
+            if (type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_INT_ARGB) {
+                pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            }
+        }
+        return pixels;
+    }
+
+    /** Converts a pixel from the image's array to ARGB, the way BufferedImage.getRGB does. */
+    private int toARGB(int pixel) {
+        return image.getType() == BufferedImage.TYPE_INT_RGB ? pixel | 0xFF000000 : pixel;
+    }
+
+    /** Converts an ARGB color to a pixel for the image's array, the way BufferedImage.setRGB does. */
+    private int fromARGB(int argb) {
+        return image.getType() == BufferedImage.TYPE_INT_RGB ? argb & 0xFFFFFF : argb;
+    }
+
+    /** Returns scale * scale copies of an ARGB color, to set every image pixel a canvas pixel covers. */
+    private int[] fill(int rgb) {
+        int[] block = new int[scale * scale];
+        Arrays.fill(block, rgb);
+        return block;
+    }
+
+    /** Throws an exception unless the region is inside the canvas. */
+    private void checkRegion(int x, int y, int width, int height) {
+        checkRegion(x, y, width, height, this.width, this.height);
+    }
+
+    /** Throws an exception unless the region is inside a canvasWidth by canvasHeight canvas. Canvases that draw
+     * later call this when they are asked to draw, so a bad call fails on the caller's thread.
+     */
+    static void checkRegion(int x, int y, int width, int height, int canvasWidth, int canvasHeight) {
+        if (x < 0 || y < 0 || width < 0 || height < 0 || x + width > canvasWidth || y + height > canvasHeight) {
+            throw new IllegalArgumentException("region (" + x + ", " + y + ", " + width + ", " + height
+                    + ") is outside the " + canvasWidth + " by " + canvasHeight + " canvas");
+        }
+    }
+
+    /** Throws an exception unless the region is inside a canvasWidth by canvasHeight canvas and argb holds at least
+     * all of its pixels.
+     */
+    static void checkPixels(int x, int y, int width, int height, int[] argb, int canvasWidth, int canvasHeight) {
+        checkRegion(x, y, width, height, canvasWidth, canvasHeight);
+        if (argb.length < width * height) {
+            throw new IllegalArgumentException("argb holds fewer than width * height pixels");
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package game;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** A Java Flight Recorder event for one call to SimpleCanvas.update(): handing the recorded frame over to be drawn,
+ * including any wait for a free buffer, or replaying and presenting it right away with active rendering.
+ */
+@Name("game.CanvasUpdate")
+@Label("Canvas Update")
+@Category("Hive Defender")
+@Description("Time spent in SimpleCanvas.update()")
+class CanvasUpdateEvent extends Event {
+    @Label("Commands")
+    int commands; // The number of drawing commands in the frame.
+
+    @Label("Active Rendering")
+    boolean activeRendering;
+}
@@ -0,0 +1,95 @@
+package game;
+
+import java.util.Arrays;
+
+/** A DirtyRegion is a list of rectangles of a canvas that need to be redrawn, or a note that all of it does. Used by
+ * SimpleCanvas's dirty rectangle mode to redraw and present only the parts of a frame that changed. Rectangles are
+ * clipped to the canvas and may overlap. Storage is kept between frames, so adding rectangles allocates nothing once
+ * the region has grown to the size of a typical frame.
+ */
+class DirtyRegion {
+    // Instance variables
+    private final int width, height; // The size of the canvas in pixels.
+    private int[] rects = new int[4 * 64]; // x, y, width and height of every rectangle.
+    private int count; // The number of rectangles.
+    private boolean all; // True if the whole canvas is dirty, whatever the rectangles say.
+
+    /** Constructs an empty region of a canvas of the given size. */
+    public DirtyRegion(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /** Makes the region empty. */
+    public void clear() {
+        count = 0;
+        all = false;
+    }
+
+    /** Adds a rectangle with its top left corner at (x, y) to the region. */
+    public void add(int x, int y, int w, int h) {
+        int left = Math.max(0, x), top = Math.max(0, y);
+        int right = Math.min(width, x + w), bottom = Math.min(height, y + h);
+        if (right <= left || bottom <= top) {
+            return; // entirely off the canvas
+        }
+        if (4 * count == rects.length) {
+            rects = Arrays.copyOf(rects, rects.length * 2);
+        }
+        int i = 4 * count++;
+        rects[i] = left;
+        rects[i + 1] = top;
+        rects[i + 2] = right - left;
+        rects[i + 3] = bottom - top;
+    }
+
+    /** Adds every rectangle of another region to this one. */
+    public void addAll(DirtyRegion other) {
+        if (other.all) {
+            all = true;
+        }
+        for (int r = 0; r < other.count; r++) {
+            add(other.getX(r), other.getY(r), other.getWidth(r), other.getHeight(r));
+        }
+    }
+
+    /** Marks the whole canvas as dirty. */
+    public void markAll() {
+        all = true;
+    }
+
+    /** Returns true if the whole canvas is dirty. */
+    public boolean isAll() {
+        return all;
+    }
+
+    /** Returns the number of rectangles in the region. */
+    public int size() {
+        return count;
+    }
+
+    /** Returns the number of pixels the rectangles cover, counting overlaps more than once. */
+    public long getArea() {
+        long area = 0;
+        for (int r = 0; r < count; r++) {
+            area += (long) getWidth(r) * getHeight(r);
+        }
+        return area;
+    }
+
+    public int getX(int r) {
+        return rects[4 * r];
+    }
+
+    public int getY(int r) {
+        return rects[4 * r + 1];
+    }
+
+    public int getWidth(int r) {
+        return rects[4 * r + 2];
+    }
+
+    public int getHeight(int r) {
+        return rects[4 * r + 3];
+    }
+}
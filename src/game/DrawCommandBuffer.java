@@ -0,0 +1,365 @@
+package game;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/** A DrawCommandBuffer records a frame's worth of drawing commands so they can be carried out later, all at once.
+ * Commands are stored compactly in three growable arrays: one opcode per command, the command's int arguments, and
+ * any object arguments (colors, strings, images). The arrays are kept between frames, so once a buffer has grown
+ * to the size of a typical frame, recording into it allocates nothing.
+ */
+class DrawCommandBuffer {
+    // Opcodes
+    private static final int CLEAR = 0;
+    private static final int DRAW_OVAL = 1;
+    private static final int FILL_OVAL = 2;
+    private static final int DRAW_RECT = 3;
+    private static final int FILL_RECT = 4;
+    private static final int DRAW_LINE = 5;
+    private static final int DRAW_POLYGON = 6;
+    private static final int FILL_POLYGON = 7;
+    private static final int DRAW_STRING = 8;
+    private static final int DRAW_STRING_CENTERED = 9;
+    private static final int LINE_THICKNESS = 10;
+    private static final int DRAW_IMAGE = 11;
+    private static final int PEN_COLOR = 12;
+    private static final int BACKGROUND_COLOR = 13;
+    private static final int SET_PIXEL = 14;
+    private static final int BACKGROUND_IMAGE = 15;
+    private static final int SET_PIXELS = 16;
+    private static final int DRAW_SIZED_IMAGE = 17;
+
+    // Instance variables
+    private int[] ops; // The opcode of every recorded command, in order.
+    private int opCount;
+    private int[] ints; // The int arguments of every recorded command, in order.
+    private int intCount;
+    private Object[] refs; // The object arguments of every recorded command, in order.
+    private int refCount;
+
+    /** Constructs a new, empty command buffer. */
+    public DrawCommandBuffer() {
+        ops = new int[256];
+        ints = new int[1024];
+        refs = new Object[256];
+    }
+
+    /** Returns true if no commands have been recorded since the last reset. */
+    public boolean isEmpty() {
+        return opCount == 0;
+    }
+
+    /** Getter function for the number of commands recorded since the last reset. */
+    public int size() {
+        return opCount;
+    }
+
+    /** Forgets every recorded command, keeping the arrays for the next frame. */
+    public void reset() {
+        Arrays.fill(refs, 0, refCount, null); // don't hold on to images and strings
+        opCount = 0;
+        intCount = 0;
+        refCount = 0;
+    }
+
+    // Recording functions. Each one appends a single command with the same arguments as the CanvasRenderer function
+    // it will later be replayed on.
+
+    public void clear() {
+        op(CLEAR);
+    }
+
+    public void drawOval(int x, int y, int width, int height) {
+        op(DRAW_OVAL);
+        ints(x, y, width, height);
+    }
+
+    public void fillOval(int x, int y, int width, int height) {
+        op(FILL_OVAL);
+        ints(x, y, width, height);
+    }
+
+    public void drawRect(int x, int y, int width, int height) {
+        op(DRAW_RECT);
+        ints(x, y, width, height);
+    }
+
+    public void fillRect(int x, int y, int width, int height) {
+        op(FILL_RECT);
+        ints(x, y, width, height);
+    }
+
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        op(DRAW_LINE);
+        ints(x1, y1, x2, y2);
+    }
+
+    public void drawPolygon(int[] xPoints, int[] yPoints) {
+        op(DRAW_POLYGON);
+        ref(xPoints);
+        ref(yPoints);
+    }
+
+    public void fillPolygon(int[] xPoints, int[] yPoints) {
+        op(FILL_POLYGON);
+        ref(xPoints);
+        ref(yPoints);
+    }
+
+    public void drawString(int x, int y, String text, int fontSize) {
+        op(DRAW_STRING);
+        ints(x, y, fontSize);
+        ref(text);
+    }
+
+    public void drawStringCentered(int x, int y, String text, int fontSize) {
+        op(DRAW_STRING_CENTERED);
+        ints(x, y, fontSize);
+        ref(text);
+    }
+
+    public void setLineThickness(int size) {
+        op(LINE_THICKNESS);
+        ints(size);
+    }
+
+    public void drawImage(Image image, int x, int y) {
+        op(DRAW_IMAGE);
+        ints(x, y);
+        ref(image);
+    }
+
+    /** Draws an image stretched to width by height canvas pixels, or copied if it was made at the renderer's scale. */
+    public void drawImage(Image image, int x, int y, int width, int height) {
+        op(DRAW_SIZED_IMAGE);
+        ints(x, y, width, height);
+        ref(image);
+    }
+
+    public void setPenColor(Color color) {
+        op(PEN_COLOR);
+        ref(color);
+    }
+
+    public void setBackgroundColor(Color color) {
+        op(BACKGROUND_COLOR);
+        ref(color);
+    }
+
+    public void setPixel(int x, int y, int rgb) {
+        op(SET_PIXEL);
+        ints(x, y, rgb);
+    }
+
+    /** Sets a width by height region of pixels from a copy of argb, so the caller can reuse the array. argb must
+     * hold at least width * height pixels; check that before recording, since a short array is padded here.
+     */
+    public void setPixels(int x, int y, int width, int height, int[] argb) {
+        op(SET_PIXELS);
+        ints(x, y, width, height);
+        ref(Arrays.copyOf(argb, width * height));
+    }
+
+    /** Clears the canvas and draws an image over all of it: the size of the canvas, or that times the scale. */
+    public void drawBackground(Image image) {
+        op(BACKGROUND_IMAGE);
+        ref(image);
+    }
+
+    /** Returns the image of the frame's background if the first command recorded was drawBackground(), or null. */
+    public Image getBackgroundImage() {
+        return opCount > 0 && ops[0] == BACKGROUND_IMAGE ? (Image) refs[0] : null;
+    }
+
+    /** Adds the area every recorded command draws on to a region, apart from a background drawn first. Commands
+     * whose area isn't known without drawing them, such as text, mark the whole region dirty.
+     */
+    public void addBounds(DirtyRegion region) {
+        int i = 0; // next int argument
+        int r = 0; // next object argument
+        for (int n = 0; n < opCount; n++) {
+            switch (ops[n]) {
+                case FILL_OVAL:
+                case FILL_RECT:
+                    // one pixel around it for antialiasing
+                    region.add(ints[i] - 1, ints[i + 1] - 1, ints[i + 2] + 2, ints[i + 3] + 2);
+                    i += 4;
+                    break;
+                case DRAW_IMAGE:
+                    Image image = (Image) refs[r];
+                    region.add(ints[i], ints[i + 1], image.getWidth(null), image.getHeight(null));
+                    i += 2;
+                    r += 1;
+                    break;
+                case DRAW_SIZED_IMAGE:
+                    region.add(ints[i], ints[i + 1], ints[i + 2], ints[i + 3]);
+                    i += 4;
+                    r += 1;
+                    break;
+                case BACKGROUND_IMAGE:
+                    if (n > 0) {
+                        region.markAll();
+                    }
+                    r += 1;
+                    break;
+                case SET_PIXEL:
+                    region.add(ints[i], ints[i + 1], 1, 1);
+                    i += 3;
+                    break;
+                case SET_PIXELS:
+                    region.add(ints[i], ints[i + 1], ints[i + 2], ints[i + 3]);
+                    i += 4;
+                    r += 1;
+                    break;
+                case LINE_THICKNESS:
+                    i += 1;
+                    break;
+                case PEN_COLOR:
+                case BACKGROUND_COLOR:
+                    r += 1;
+                    break;
+                default:
+                    region.markAll(); // outlines depend on the line thickness and text on the font
+                    return;
+            }
+        }
+    }
+
+    /** Carries out every recorded command, in order, on the given renderer. */
+    public void replay(CanvasRenderer renderer) {
+        replay(renderer, false);
+    }
+
+    /** Carries out every recorded command, in order, on the given renderer. If skipBackground is true, a background
+     * drawn with drawBackground() is left out, because the caller has already put it back where it is needed.
+     */
+    public void replay(CanvasRenderer renderer, boolean skipBackground) {
+        int i = 0; // next int argument
+        int r = 0; // next object argument
+        for (int n = 0; n < opCount; n++) {
+            switch (ops[n]) {
+                case CLEAR:
+                    renderer.clear();
+                    break;
+                case DRAW_OVAL:
+                    renderer.drawOval(ints[i], ints[i + 1], ints[i + 2], ints[i + 3]);
+                    i += 4;
+                    break;
+                case FILL_OVAL:
+                    renderer.fillOval(ints[i], ints[i + 1], ints[i + 2], ints[i + 3]);
+                    i += 4;
+                    break;
+                case DRAW_RECT:
+                    renderer.drawRect(ints[i], ints[i + 1], ints[i + 2], ints[i + 3]);
+                    i += 4;
+                    break;
+                case FILL_RECT:
+                    renderer.fillRect(ints[i], ints[i + 1], ints[i + 2], ints[i + 3]);
+                    i += 4;
+                    break;
+                case DRAW_LINE:
+                    renderer.drawLine(ints[i], ints[i + 1], ints[i + 2], ints[i + 3]);
+                    i += 4;
+                    break;
+                case DRAW_POLYGON:
+                    renderer.drawPolygon((int[]) refs[r], (int[]) refs[r + 1]);
+                    r += 2;
+                    break;
+                case FILL_POLYGON:
+                    renderer.fillPolygon((int[]) refs[r], (int[]) refs[r + 1]);
+                    r += 2;
+                    break;
+                case DRAW_STRING:
+                    renderer.drawString(ints[i], ints[i + 1], (String) refs[r], ints[i + 2]);
+                    i += 3;
+                    r += 1;
+                    break;
+                case DRAW_STRING_CENTERED:
+                    renderer.drawStringCentered(ints[i], ints[i + 1], (String) refs[r], ints[i + 2]);
+                    i += 3;
+                    r += 1;
+                    break;
+                case LINE_THICKNESS:
+                    renderer.setLineThickness(ints[i]);
+                    i += 1;
+                    break;
+                case DRAW_IMAGE:
+                    renderer.drawImage((Image) refs[r], ints[i], ints[i + 1]);
+                    i += 2;
+                    r += 1;
+                    break;
+                case DRAW_SIZED_IMAGE:
+                    renderer.drawImage((Image) refs[r], ints[i], ints[i + 1], ints[i + 2], ints[i + 3]);
+                    i += 4;
+                    r += 1;
+                    break;
+                case PEN_COLOR:
+                    renderer.setPenColor((Color) refs[r]);
+                    r += 1;
+                    break;
+                case BACKGROUND_COLOR:
+                    renderer.setBackgroundColor((Color) refs[r]);
+                    r += 1;
+                    break;
+                case SET_PIXEL:
+                    renderer.setPixel(ints[i], ints[i + 1], ints[i + 2]);
+                    i += 3;
+                    break;
+                case SET_PIXELS:
+                    renderer.setPixels(ints[i], ints[i + 1], ints[i + 2], ints[i + 3], (int[]) refs[r]);
+                    i += 4;
+                    r += 1;
+                    break;
+                case BACKGROUND_IMAGE:
+                    if (!skipBackground) {
+                        renderer.clear();
+                        renderer.drawBackground((Image) refs[r]);
+                    }
+                    r += 1;
+                    break;
+                default:
+                    throw new IllegalStateException("unknown draw command " + ops[n]);
+            }
+        }
+    }
+
+    private void op(int op) {
+        if (opCount == ops.length) ops = Arrays.copyOf(ops, ops.length * 2);
+        ops[opCount++] = op;
+    }
+
+    private void ints(int a) {
+        ensureInts(1);
+        ints[intCount++] = a;
+    }
+
+    private void ints(int a, int b) {
+        ensureInts(2);
+        ints[intCount++] = a;
+        ints[intCount++] = b;
+    }
+
+    private void ints(int a, int b, int c) {
+        ensureInts(3);
+        ints[intCount++] = a;
+        ints[intCount++] = b;
+        ints[intCount++] = c;
+    }
+
+    private void ints(int a, int b, int c, int d) {
+        ensureInts(4);
+        ints[intCount++] = a;
+        ints[intCount++] = b;
+        ints[intCount++] = c;
+        ints[intCount++] = d;
+    }
+
+    private void ensureInts(int count) {
+        if (intCount + count > ints.length) ints = Arrays.copyOf(ints, ints.length * 2);
+    }
+
+    private void ref(Object value) {
+        if (refCount == refs.length) refs = Arrays.copyOf(refs, refs.length * 2);
+        refs[refCount++] = value;
+    }
+}
@@ -0,0 +1,24 @@
+package game;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/** A Java Flight Recorder event for one recorded frame being replayed on the event dispatch thread. Its duration
+ * is the replay itself; queueLatency is how long the frame waited in the EDT's queue after it was posted.
+ */
+@Name("game.EdtFrame")
+@Label("EDT Frame")
+@Category("Hive Defender")
+@Description("A recorded frame replayed on the event dispatch thread")
+class EdtFrameEvent extends Event {
+    @Label("Queue Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long queueLatency; // From SwingUtilities.invokeLater() until the frame started running.
+
+    @Label("Commands")
+    int commands; // The number of drawing commands in the frame.
+}
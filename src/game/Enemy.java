@@ -4,14 +4,27 @@ package game;
  * wants to eliminate. This class inherits the class GameObject.
  */
 public class Enemy extends GameObject {
+    /** How far an enemy moves along each axis every tick. */
+    public static final int STEP = 10;
+
+    /** The x-coordinate enemies spawn at, just past the right edge of the canvas. */
+    public static final int SPAWN_X = 1400;
+
     protected int health; // The hitpoints for an enemy.
     protected Location prevLocation; // The last location to reverse movement if it reaches player.
     protected int dph; // The damage per hit an enemy does.
     protected int points; // The number of points an enemy is worth.
+    protected GameRandom random; // Picks where the enemy spawns.
 
     /** Constructs a new enemy. There can be multiple of the per canvas.. */
     public Enemy() {
+        this(new GameRandom());
+    }
+
+    /** Constructs a new enemy that spawns wherever the given generator picks. */
+    public Enemy(GameRandom random) {
         super();
+        this.random = random;
         setLocation();
         health = 100;
         setHeight(50);
@@ -21,6 +34,15 @@ public class Enemy extends GameObject {
         points = 0;
     }
 
+    /** Resets the enemy to full health at a new spawn location, like a new enemy. */
+    public void reset() {
+        super.reset();
+        setLocation();
+        health = 100;
+        prevLocation.setX(0);
+        prevLocation.setY(0);
+    }
+
     /** Getter function for the dph (damage per hit). */
     public int getDph() {
         return dph;
@@ -61,9 +83,13 @@ public class Enemy extends GameObject {
 
     /** Setter function for the location of an enemy. */
     public void setLocation() {
-        int randomNumY = (int)(Math.random() * 651 + 50); // random Y coordinate that allows full image to appear on screen
-        location.setX(1400);
-        location.setY(randomNumY);
+        location.setX(SPAWN_X);
+        location.setY(randomSpawnY(random));
+    }
+
+    /** Returns a random y-coordinate, picked by the given generator, to spawn an enemy at. */
+    public static int randomSpawnY(GameRandom random) {
+        return random.nextInt(50, 701); // random Y coordinate that allows full image to appear on screen
     }
 
     /** Moves the enemy towards the bee. Looks at the enemy's location compared to the player's and then determines which
@@ -86,22 +112,22 @@ public class Enemy extends GameObject {
 
     /** This function moves the enemy image right by 10 pixels. */
     public void moveRight() {
-        setLocationX(getLocation().getX()+10);
+        setLocationX(getLocation().getX()+STEP);
     }
 
     /** This function moves the enemy image left by 10 pixels. */
     public void moveLeft() {
-        setLocationX(getLocation().getX()-10);
+        setLocationX(getLocation().getX()-STEP);
     }
 
     /** This function moves the enemy image up by 10 pixels. */
     public void moveUp() {
-        setLocationY(getLocation().getY()-10);
+        setLocationY(getLocation().getY()-STEP);
     }
 
     /** This function moves the enemy image down by 10 pixels. */
     public void moveDown() {
-        setLocationY(getLocation().getY()+10);
+        setLocationY(getLocation().getY()+STEP);
     }
 
     /** The toString function for an enemy. Mainly used to determine the location of an enemy during testing. */
@@ -0,0 +1,169 @@
+package game;
+
+import java.util.Arrays;
+
+/** An EntityStore holds many small game objects of a few kinds, such as enemies or bullets, as parallel arrays of
+ * primitives instead of one heap object per entity. Entity i is described by x[i], y[i], health[i] and so on, so the
+ * game can update all of them in tight loops over contiguous memory.
+ *
+ * Entities are kept densely packed in indexes 0 to size - 1. Removing one moves the last entity into its place, so
+ * indexes are only stable until the next removal, and loops that remove entities should run from the end.
+ *
+ * What each kind of entity looks like, and the health and damage it starts with, comes from a template object per
+ * type, e.g. a RedWasp and a YellowJacket for the enemy store.
+ */
+class EntityStore {
+    // Per-entity arrays. Only indexes below size are in use.
+    int size; // The number of entities in the store.
+    int[] x, y; // The location of the CENTER of each entity.
+    int[] prevX, prevY; // Where each entity was at the start of the current tick.
+    double[] vx, vy; // How far each entity moves per tick, for entities that move in a straight line.
+    int[] health; // Hitpoints left. An entity with 0 or less is dead and waiting to be removed.
+    int[] dph; // The damage per hit each entity does.
+    int[] type; // Which template each entity was made from.
+
+    // Per-type tables, taken from the templates.
+    private final String[] typeImage;
+    private final int[] typeWidth, typeHeight, typeHealth, typeDph, typePoints;
+
+    /** Constructs an empty store for entities of the given types. Type i looks and starts like templates[i]. */
+    public EntityStore(GameObject... templates) {
+        int types = templates.length;
+        typeImage = new String[types];
+        typeWidth = new int[types];
+        typeHeight = new int[types];
+        typeHealth = new int[types];
+        typeDph = new int[types];
+        typePoints = new int[types];
+        for (int t = 0; t < types; t++) {
+            GameObject template = templates[t];
+            typeImage[t] = template.getImageFilename();
+            typeWidth[t] = template.getWidth();
+            typeHeight[t] = template.getHeight();
+            typeHealth[t] = 1; // anything that isn't an enemy dies on its first hit
+            if (template instanceof Enemy) {
+                Enemy enemy = (Enemy) template;
+                typeHealth[t] = enemy.getHealth();
+                typeDph[t] = enemy.getDph();
+                typePoints[t] = enemy.getPoints();
+            }
+        }
+        allocate(64);
+    }
+
+    /** Adds a new entity of the given type centered at (x, y), not moving, and returns its index. */
+    public int add(int entityType, int centerX, int centerY) {
+        if (size == x.length) {
+            allocate(size * 2);
+        }
+        int i = size++;
+        x[i] = centerX;
+        y[i] = centerY;
+        prevX[i] = centerX;
+        prevY[i] = centerY;
+        vx[i] = 0;
+        vy[i] = 0;
+        health[i] = typeHealth[entityType];
+        dph[i] = typeDph[entityType];
+        type[i] = entityType;
+        return i;
+    }
+
+    /** Removes the entity at index i by moving the last entity into its place. */
+    public void remove(int i) {
+        int last = --size;
+        if (i != last) {
+            x[i] = x[last];
+            y[i] = y[last];
+            prevX[i] = prevX[last];
+            prevY[i] = prevY[last];
+            vx[i] = vx[last];
+            vy[i] = vy[last];
+            health[i] = health[last];
+            dph[i] = dph[last];
+            type[i] = type[last];
+        }
+    }
+
+    /** Removes every entity. */
+    public void clear() {
+        size = 0;
+    }
+
+    /** Getter function for the number of entities. */
+    public int size() {
+        return size;
+    }
+
+    /** Getter function for how many entities fit before the arrays have to grow. */
+    public int getCapacity() {
+        return x.length;
+    }
+
+    /** Returns true if there are no entities. */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Setter function for how far the entity at index i moves per tick. */
+    public void setVelocity(int i, double xVelocity, double yVelocity) {
+        vx[i] = xVelocity;
+        vy[i] = yVelocity;
+    }
+
+    /** Getter function for the image filename of the entity at index i. */
+    public String getImageFilename(int i) {
+        return typeImage[type[i]];
+    }
+
+    /** Getter function for the width of the entity at index i. */
+    public int getWidth(int i) {
+        return typeWidth[type[i]];
+    }
+
+    /** Getter function for the height of the entity at index i. */
+    public int getHeight(int i) {
+        return typeHeight[type[i]];
+    }
+
+    /** Getter function for the points the entity at index i is worth. */
+    public int getPoints(int i) {
+        return typePoints[type[i]];
+    }
+
+    /** Get the x-coordinate of the left edge of the entity at index i. */
+    public int getLeftX(int i) {
+        return x[i] - typeWidth[type[i]] / 2;
+    }
+
+    /** Get the x-coordinate of the right edge of the entity at index i. */
+    public int getRightX(int i) {
+        return x[i] + typeWidth[type[i]] / 2;
+    }
+
+    /** Get the y-coordinate of the top edge of the entity at index i. */
+    public int getTopY(int i) {
+        return y[i] - typeHeight[type[i]] / 2;
+    }
+
+    /** Get the y-coordinate of the bottom edge of the entity at index i. */
+    public int getBottomY(int i) {
+        return y[i] + typeHeight[type[i]] / 2;
+    }
+
+    private void allocate(int capacity) {
+        x = grow(x, capacity);
+        y = grow(y, capacity);
+        prevX = grow(prevX, capacity);
+        prevY = grow(prevY, capacity);
+        vx = vx == null ? new double[capacity] : Arrays.copyOf(vx, capacity);
+        vy = vy == null ? new double[capacity] : Arrays.copyOf(vy, capacity);
+        health = grow(health, capacity);
+        dph = grow(dph, capacity);
+        type = grow(type, capacity);
+    }
+
+    private static int[] grow(int[] array, int capacity) {
+        return array == null ? new int[capacity] : Arrays.copyOf(array, capacity);
+    }
+}
@@ -0,0 +1,71 @@
+package game;
+
+import java.awt.*;
+import java.util.HashMap;
+
+/** A FontCache holds fonts derived by name, style and size, so drawing text at a size used before doesn't create a
+ * new Font. Programs only ever use a handful of sizes, so fonts are never evicted.
+ */
+public class FontCache {
+    private static final FontCache SHARED = new FontCache();
+
+    // Instance variables
+    private final HashMap<Key, Font> fonts; // Every font made so far.
+    private final Key probe; // Reused for lookups so a cache hit allocates nothing.
+
+    /** Constructs a new, empty cache. */
+    public FontCache() {
+        fonts = new HashMap<>();
+        probe = new Key(null, 0, 0);
+    }
+
+    /** Returns the font cache shared by every canvas in this program. */
+    public static FontCache shared() {
+        return SHARED;
+    }
+
+    /** Returns the font with the given name, style (see Font) and point size. */
+    public synchronized Font get(String name, int style, int size) {
+        if (name == null) throw new IllegalArgumentException();
+        probe.set(name, style, size);
+        Font font = fonts.get(probe);
+        if (font == null) {
+            font = new Font(name, style, size);
+            fonts.put(new Key(name, style, size), font);
+        }
+        return font;
+    }
+
+    /** Getter function for the number of fonts currently cached. */
+    public synchronized int size() {
+        return fonts.size();
+    }
+
+    /** The (name, style, size) triple a font is cached under. */
+    private static class Key {
+        private String name;
+        private int style, size;
+
+        public Key(String name, int style, int size) {
+            set(name, style, size);
+        }
+
+        public void set(String name, int style, int size) {
+            this.name = name;
+            this.style = style;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return style == other.style && size == other.size && name.equals(other.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return (name.hashCode() * 31 + style) * 31 + size;
+        }
+    }
+}
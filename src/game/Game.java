@@ -1,43 +1,189 @@
 package game;
 
 import java.awt.*;
-import java.awt.event.KeyEvent;
 import java.lang.String;
 import java.awt.Color;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.file.Path;
 
 /** This class represents a generic game on a canvas.  */
 public class Game {
+    private static final int TICKS_PER_SECOND = 20; // How often the game state advances.
+    private static final long NANOS_PER_TICK = 1_000_000_000L / TICKS_PER_SECOND;
+    private static final int MAX_TICKS_PER_FRAME = 5; // Limit on catch-up ticks, so a slow machine slows the game instead of freezing it.
+    private static final int FRAMES_PER_SECOND = 60; // How often the game is drawn.
+    private static final long NANOS_PER_FRAME = 1_000_000_000L / FRAMES_PER_SECOND;
+    private static final int GRID_CELL_SIZE = 64; // About the size of an enemy, so each object covers a few cells.
+    private static final int FLOW_CELL_SIZE = 20; // As far as the bee moves in a step, and at least an enemy's step.
+    private static final int RED_WASP = 0, YELLOW_JACKET = 1; // Enemy types in the enemy store.
+    private static final int HUD_IMAGES = 4; // More than the frames a canvas may still be waiting to draw.
+
     // Instance variables
-    private SimpleCanvas canvas; // Represents the canvas for which the game is played on.
+    private GameCanvas canvas; // Represents the canvas for which the game is played on.
     private boolean isVisible; // Represents if the canvas is visible.
     private Bee mainBee; // The main "good" object in the game. This object is what the player controls.
     private int gameCounter; // The counter for game, used to count how many ticks have commenced.
-    private ArrayList<Enemy> enemies; // The current enemies spawned in.
+    private EntityStore enemies; // The current enemies spawned in.
     private int points; // The points collected by the main player.
     private int heightOfHUD; // The height of the HUD.
+    private final BufferedImage[] hudImages; // The HUD, drawn only when what it shows changes. Made when first drawn.
+    private final CanvasRenderer[] hudRenderers; // Draw on the HUD images.
+    private int hudIndex; // Which HUD image is the current one.
+    private int hudHealth, hudAmmo, hudPoints; // What the current HUD image shows.
     private ArrayList<Upgrade> upgrades; // All the upgrades on the map.
+    private final ObjectPool<Upgrade> upgradePool; // Upgrades that were picked up, ready to be placed again.
+    private boolean beeDied; // Whether the game ended because the main bee ran out of health.
+    private final SnapshotExchange snapshots; // Hands the state of each finished tick to whoever draws it.
+    private volatile boolean rendering; // Whether the render thread should keep drawing.
+    private final SpatialHash enemyGrid, bulletGrid, upgradeGrid; // Find objects near each other for collisions.
+    private final FlowField flowField; // Which way enemies go to reach the main bee.
+    private final long seed; // Where every random choice in this game comes from.
+    private final GameRandom spawnRandom; // Picks which enemies spawn and where.
+    private final GameRandom upgradeRandom; // Picks when and where upgrades appear.
+    private final GameRandom pickupRandom; // Picks what a picked up upgrade does.
+    private InputSource inputSource; // Where each tick's input comes from: the canvas, or a replay.
+    private InputRecorder recorder; // Writes each tick's input to a file, or null if the game isn't recorded.
+    private PlayerController controller; // Decides what the main bee does each tick.
+    private boolean endless; // Whether the game carries on past the winning score, for soak tests.
+    private boolean invulnerable; // Whether enemies can't hurt the main bee, for stress tests.
+    private WaveScheduler waves; // How fast enemies spawn, how many can be alive, and how often upgrades appear.
 
     /** Construct a new instance of the game with a given width and height. */
     public Game(int width, int height)
+    {
+        this(width, height, GameRandom.newSeed());
+    }
+
+    /** Construct a new instance of the game with a given width and height, making its random choices from the given
+     * seed.
+     */
+    public Game(int width, int height, long seed)
+    {
+        this(new SimpleCanvas(width, height, "My Game", true), seed); // the game loop presents every frame itself
+    }
+
+    /** Construct a new instance of the game played on the given canvas, such as a HeadlessCanvas. */
+    public Game(GameCanvas canvas)
+    {
+        this(canvas, GameRandom.newSeed());
+    }
+
+    /** Construct a new instance of the game played on the given canvas, making its random choices from the given
+     * seed. Two games with the same seed and the same input play out exactly the same way.
+     */
+    public Game(GameCanvas canvas, long seed)
     {
         isVisible = false;
-        canvas = new SimpleCanvas(width, height, "My Game");
+        this.seed = seed;
+        GameRandom random = new GameRandom(seed);
+        spawnRandom = random.split();
+        upgradeRandom = random.split();
+        pickupRandom = random.split();
+        inputSource = canvas;
+        controller = new KeyboardMouseController();
+        waves = WaveScheduler.standard();
+        this.canvas = canvas;
         mainBee = new Bee();
-        enemies = new ArrayList<>();
-        heightOfHUD = 0;
+        enemies = new EntityStore(new RedWasp(), new YellowJacket()); // in the order of the type constants
+        heightOfHUD = canvas.getHeight() / 15;
+        mainBee.setTopBoundary(heightOfHUD); // The bee can't fly over the HUD.
+        hudImages = new BufferedImage[HUD_IMAGES];
+        hudRenderers = new CanvasRenderer[HUD_IMAGES];
+        hudIndex = -1; // nothing drawn yet
         upgrades = new ArrayList<>();
+        upgradePool = new ObjectPool<>(2, () -> new Upgrade(upgradeRandom)); // never more than 2 upgrades in play
+        snapshots = new SnapshotExchange();
+        enemyGrid = new SpatialHash(canvas.getWidth(), canvas.getHeight(), GRID_CELL_SIZE);
+        bulletGrid = new SpatialHash(canvas.getWidth(), canvas.getHeight(), GRID_CELL_SIZE);
+        upgradeGrid = new SpatialHash(canvas.getWidth(), canvas.getHeight(), GRID_CELL_SIZE);
+        flowField = new FlowField(canvas.getWidth(), canvas.getHeight(), FLOW_CELL_SIZE);
+    }
+
+    /** Getter function for the main bee. Package-private so the benchmarks can set up a game. */
+    Bee getMainBee() {
+        return mainBee;
+    }
+
+    /** Getter function for the seed this game makes its random choices from. */
+    public long getSeed() {
+        return seed;
     }
 
-    /** Draw the state of the game on the canvas. */
+    /** Records the seed and the input of every tick to the given file as the game is played, so the same game can
+     * be played again later with replayInput().
+     */
+    public void recordInput(Path file) throws IOException {
+        recorder = new InputRecorder(file, seed, inputSource);
+        inputSource = recorder;
+    }
+
+    /** Stops recording input and writes out the rest of the recording. Does nothing if the game isn't recorded. */
+    void stopRecording() {
+        if (recorder != null) {
+            recorder.close();
+        }
+    }
+
+    /** Plays back a recording made by recordInput() instead of reading input from the canvas. The game must have
+     * been constructed with the recording's seed.
+     */
+    void replayInput(InputReplay replay) {
+        if (replay.getSeed() != seed) {
+            throw new IllegalArgumentException("the recording was made with seed " + replay.getSeed()
+                    + ", not " + seed);
+        }
+        inputSource = replay;
+    }
+
+    /** Lets the given controller decide what the main bee does each tick, instead of the keyboard and mouse. */
+    void setController(PlayerController controller) {
+        this.controller = controller;
+    }
+
+    /** Getter function for the upgrades waiting to be picked up. */
+    ArrayList<Upgrade> getUpgrades() {
+        return upgrades;
+    }
+
+    /** Getter function for the points collected so far. */
+    public int getPoints() {
+        return points;
+    }
+
+    /** Getter function for the enemies. Package-private so the benchmarks can set up a game. */
+    EntityStore getEnemies() {
+        return enemies;
+    }
+
+    /** Draw the most recently finished tick of the game on the canvas. */
     public void draw()
     {
-        canvas.clear(); // always clear first.
-        canvas.drawImage(0,0, "beehive.jpg",canvas.getWidth(), canvas.getHeight()); // Draws background for game.
-        drawUpgrades(); // Draw all upgrades on canvas.
-        mainBee.draw(canvas); // always update where main "good" object is.
-        drawEnemies(); // Draw all enemies on canvas.
-        constructHUD(); // Creates and updates the HUD.
+        GameSnapshot snapshot = snapshots.latest();
+        if (snapshot != null) {
+            draw(snapshot, 1.0);
+        }
+    }
+
+    /** Draw a snapshot of the game on the canvas, with moving objects drawn alpha of the way (0 to 1) from where they
+     * were at the start of that tick to where they were at the end of it.
+     */
+    private void draw(GameSnapshot snapshot, double alpha)
+    {
+        RenderPhaseEvent event = new RenderPhaseEvent();
+        event.begin();
+        canvas.drawBackground("beehive.jpg"); // always clear first, then draw the background for the game.
+        // Upgrades, then the main bee and its bullets, then enemies, in the order the snapshot was filled.
+        for (int i = 0; i < snapshot.spriteCount; i++) {
+            int width = snapshot.width[i];
+            int height = snapshot.height[i];
+            canvas.drawImage(snapshot.getX(i, alpha) - width/2, snapshot.getY(i, alpha) - height/2, snapshot.image[i], width, height);
+        }
+        constructHUD(snapshot); // Creates and updates the HUD.
+        if (snapshot.reloadPrompt) { // determines if game needs to tell player to reload with message.
+            drawReloadStatusMessage();
+        }
         // Show the window if needs be.
         if (!isVisible) {
             canvas.show();
@@ -46,60 +192,265 @@ public class Game {
         else {
             canvas.update();
         }
+        if (event.shouldCommit()) {
+            event.phase = "draw";
+            event.sprites = snapshot.spriteCount;
+            event.commit();
+        }
     }
 
     /** Returns true if game is over either by player dying or player winning.  */
-    private boolean isGameOver(boolean death) {
-        if (death) {
-            return true;
-        }
-        gameCounter++;
-        if (points >= 4000) {
-            return true;
-        }
-        return false;
+    boolean isGameOver() {
+        return beeDied || (!endless && points >= 4000);
     }
 
-    /** Start the game running. */
+    /** Start the game running. The game advances in fixed ticks of 1/20th of a second, measured on the canvas's clock,
+     * no matter how long each frame takes to draw. After each tick the simulation publishes a snapshot of the game,
+     * and frames are drawn from the newest snapshot, up to FRAMES_PER_SECOND times a second, in between the start
+     * and end of that tick.
+     *
+     * On a canvas that runs in real time, the simulation runs on this thread and drawing on a separate render
+     * thread, so a slow frame never delays a tick. Otherwise (on a HeadlessCanvas) both take turns on this thread.
+     */
     public void runGame() {
         createStartingScreen(); // Creates the starting screen for the game.
         canvas.waitForClick(); // Wait for click to begin game.
+        canvas.pollInput(); // That click was also queued as input, but it starts the game rather than firing, so drop it.
 
         // Set main bee's starting location.
         mainBee.setLocationX(canvas.getWidth() / 2);
         mainBee.setLocationY(canvas.getHeight() / 2);
+        publishSnapshot();
+
+        if (canvas.isRealTime()) {
+            runOnTwoThreads();
+        }
+        else {
+            runOnOneThread();
+        }
+        stopRecording(); // the game is over, so write out the end of the recording
+        if (beeDied) {
+            runDeathScreen(); // prints death screen
+        }
+        else {
+            printWinScreen(); // prints win screen
+        }
+    }
+
+    /** Plays the game like runGame(), but without screens, drawing or waiting: ticks run one straight after another
+     * until the game is over or maxTicks ticks have run. Returns the number of ticks run. Call it again to carry on
+     * where it stopped. Used by BatchSimulator and SoakTest to play games as fast as possible.
+     */
+    int simulate(int maxTicks) {
+        if (gameCounter == 0) { // starting, so set main bee's starting location.
+            mainBee.setLocationX(canvas.getWidth() / 2);
+            mainBee.setLocationY(canvas.getHeight() / 2);
+        }
+        int ticks = 0;
+        while (!isGameOver() && ticks < maxTicks) {
+            tick();
+            ticks++;
+        }
+        if (isGameOver()) {
+            stopRecording();
+        }
+        return ticks;
+    }
 
+    /** Replaces the wave scheduler, for example with WaveScheduler.swarm() to stress the game with thousands of
+     * enemies.
+     */
+    void setWaveScheduler(WaveScheduler waves) {
+        this.waves = waves;
+    }
+
+    /** Sets whether enemies are unable to hurt the main bee, so a stress test can go on however many there are. */
+    void setInvulnerable(boolean invulnerable) {
+        this.invulnerable = invulnerable;
+    }
+
+    /** Sets whether the game goes on after the player has enough points to win, ending only when the bee dies. */
+    void setEndless(boolean endless) {
+        this.endless = endless;
+    }
+
+    /** Returns true if the game ended because the main bee ran out of health. */
+    boolean didBeeDie() {
+        return beeDied;
+    }
+
+    /** Runs the simulation on this thread, ticking on schedule, while a render thread draws the newest snapshot. */
+    private void runOnTwoThreads() {
+        Thread renderThread = new Thread(this::renderLoop, "Hive Defender renderer");
+        renderThread.setDaemon(true);
+        rendering = true;
+        renderThread.start();
+
+        long nextTick = canvas.nanoTime() + NANOS_PER_TICK;
         // Loop while the game is not over:
-        while (!isGameOver(false)) {
-            moveBullets(); // moves bullets horizontally right until it hits wall.
-            moveEnemies(); // moves enemies towards player.
-            checkForCollisions(); // checks player interaction with any other objects.
-            removeCommonEnemies(); // deletes enemies when their health is 0 or less.
-            generateUpgrades(); // Randomly generates upgrades.
-            if (mainBee.getReloadCounter() > 0) { // starts timer for reload.
-                reduceReloadCounter(); // the timer reduction method for the reload.
+        while (!isGameOver()) {
+            int ticks = 0;
+            while (canvas.nanoTime() >= nextTick && ticks < MAX_TICKS_PER_FRAME && !isGameOver()) {
+                tick();
+                publishSnapshot();
+                nextTick += NANOS_PER_TICK;
+                ticks++;
             }
-            if (!mainBee.getReloadedStatus()) { // determines if game needs to tell player to reload with message.
-                drawReloadStatusMessage();
+            long now = canvas.nanoTime();
+            if (now - nextTick >= NANOS_PER_TICK) {
+                nextTick = now; // Too far behind to catch up, so let the game run slower for a moment.
             }
-            generateCommonEnemies(); //Randomly generate enemies.
-            draw();
+            long wait = nextTick - now;
+            if (wait > 0) {
+                canvas.pause((int) ((wait + 999_999) / 1_000_000));
+            }
+        }
 
-            // handle keyboard
-            handleKeyboard();
+        rendering = false;
+        try {
+            renderThread.join(); // so the end screen isn't drawn over
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
 
-            // handle mouse
-            handleMouse();
+    /** Draws the newest snapshot up to FRAMES_PER_SECOND times a second until the simulation stops. */
+    private void renderLoop() {
+        long nextFrame = canvas.nanoTime();
+        while (rendering) {
+            GameSnapshot snapshot = snapshots.latest();
+            if (snapshot != null) {
+                double alpha = (double) (canvas.nanoTime() - snapshot.time) / NANOS_PER_TICK;
+                draw(snapshot, Math.min(1.0, Math.max(0.0, alpha)));
+            }
+            nextFrame += NANOS_PER_FRAME;
+            long wait = nextFrame - canvas.nanoTime();
+            if (wait > 0) {
+                canvas.pause((int) (wait / 1_000_000));
+            }
+            else {
+                nextFrame = canvas.nanoTime(); // a slow frame; don't try to make up for it
+            }
+        }
+    }
 
-            canvas.update();
-            // Checks if main bee's health is 0 or less. Ends game if bee is dead.
-            if (checkForDeathOfBee()) {
-                isGameOver(true);
-                runDeathScreen();
+    /** Alternates between running the ticks that are due and drawing a frame, all on this thread. */
+    private void runOnOneThread() {
+        long previousTime = canvas.nanoTime();
+        long lag = 0; // Time that has passed but not been simulated yet.
+        // Loop while the game is not over:
+        while (!isGameOver()) {
+            long frameStart = canvas.nanoTime();
+            lag += frameStart - previousTime;
+            previousTime = frameStart;
+
+            int ticks = 0;
+            while (lag >= NANOS_PER_TICK && ticks < MAX_TICKS_PER_FRAME && !isGameOver()) {
+                tick();
+                publishSnapshot();
+                lag -= NANOS_PER_TICK;
+                ticks++;
+            }
+            if (lag >= NANOS_PER_TICK) {
+                lag %= NANOS_PER_TICK; // Too far behind to catch up, so let the game run slower for a moment.
+            }
+            if (isGameOver()) {
+                break;
+            }
+
+            draw(snapshots.latest(), (double) lag / NANOS_PER_TICK);
+
+            long frameTime = canvas.nanoTime() - frameStart;
+            if (frameTime < NANOS_PER_FRAME) {
+                canvas.pause((int) ((NANOS_PER_FRAME - frameTime) / 1_000_000));
+            }
+        }
+    }
+
+    /** Advances the game by one tick: moves everything, resolves collisions, spawns new objects and reads input. */
+    void tick() {
+        gameCounter++;
+        mainBee.rememberLocation(); // so frames drawn during this tick can move the bee smoothly.
+        TickPhaseEvent phase = beginPhase();
+        moveBullets(); // moves bullets horizontally right until it hits wall.
+        phase = endPhase(phase, "moveBullets");
+        moveEnemies(); // moves enemies towards player.
+        phase = endPhase(phase, "moveEnemies");
+        checkForCollisions(); // checks player interaction with any other objects.
+        phase = endPhase(phase, "checkForCollisions");
+        removeCommonEnemies(); // deletes enemies when their health is 0 or less.
+        phase = endPhase(phase, "removeCommonEnemies");
+        generateUpgrades(); // Randomly generates upgrades.
+        if (mainBee.getReloadCounter() > 0) { // starts timer for reload.
+            reduceReloadCounter(); // the timer reduction method for the reload.
+        }
+        generateCommonEnemies(); //Randomly generate enemies.
+        phase = endPhase(phase, "spawn");
+
+        InputSnapshot input = inputSource.pollInput(); // everything the player did since the last tick
+
+        // handle keyboard and mouse, or let the autopilot play
+        controller.takeTurn(this, input);
+        commitPhase(phase, "input");
+
+        // Checks if main bee's health is 0 or less. Ends game if bee is dead.
+        if (checkForDeathOfBee()) {
+            beeDied = true;
+        }
+    }
+
+    /** Begins a flight recorder event for the next phase of a tick. */
+    private TickPhaseEvent beginPhase() {
+        TickPhaseEvent event = new TickPhaseEvent();
+        event.begin();
+        return event;
+    }
+
+    /** Commits the event for a phase of the tick that just finished, with how many objects are now in play. */
+    private void commitPhase(TickPhaseEvent event, String phase) {
+        if (event.shouldCommit()) {
+            event.phase = phase;
+            event.tick = gameCounter;
+            event.enemies = enemies.size();
+            event.bullets = mainBee.getBullets().size();
+            event.upgrades = upgrades.size();
+            event.commit();
+        }
+    }
+
+    /** Commits the event for a phase of the tick that just finished and begins the event for the next phase. */
+    private TickPhaseEvent endPhase(TickPhaseEvent event, String phase) {
+        commitPhase(event, phase);
+        return beginPhase();
+    }
+
+    /** Copies everything needed to draw the game into a snapshot and publishes it for the renderer. */
+    void publishSnapshot() {
+        TickPhaseEvent phase = beginPhase();
+        GameSnapshot snapshot = snapshots.getBack();
+        snapshot.clear();
+        for (Upgrade upgrade : upgrades) {
+            snapshot.addSprite(upgrade);
+        }
+        snapshot.addSprite(mainBee);
+        EntityStore bullets = mainBee.getBullets();
+        for (int i = 0; i < bullets.size(); i++) {
+            snapshot.addSprite(bullets, i);
+        }
+        if (waves.isStackedEnemiesDrawnOnce()) {
+            snapshot.addSprites(enemies); // only in a swarm, since it changes the picture slightly
+        }
+        else {
+            for (int i = 0; i < enemies.size(); i++) {
+                snapshot.addSprite(enemies, i);
             }
-            canvas.pause(50);
         }
-        printWinScreen(); // prints win screen
+        snapshot.health = mainBee.getHealth();
+        snapshot.ammo = mainBee.getAmmo();
+        snapshot.points = points;
+        snapshot.reloadPrompt = !mainBee.getReloadedStatus();
+        snapshots.publish(canvas.nanoTime());
+        commitPhase(phase, "publishSnapshot");
     }
 
     private void createStartingScreen() {
@@ -122,19 +473,13 @@ public class Game {
         canvas.update(); // update message to canvas.
     }
 
-    /** Generate upgrades for the game. A max of 2 upgrades are allowed in the game at all times. */
+    /** Generate upgrades for the game. Normally a max of 2 upgrades are allowed in the game at all times; the wave
+     * scheduler decides.
+     */
     private void generateUpgrades() {
-        int randNum = (int) (Math.random() * 300 + 1); // random 1 in 300 chance to generate upgrade every tick. (20 ticks/sec)
-        if (randNum == 1 && upgrades.size() < 2) {
-            Upgrade newUpgrade = new Upgrade();
-            upgrades.add(newUpgrade);
-        }
-    }
-
-    /** Draws the upgrades generated to the canvas so player can see them. */
-    private void drawUpgrades() {
-        for (Upgrade upgrade : upgrades) {
-            upgrade.draw(canvas);
+        boolean generate = upgradeRandom.oneIn(waves.getUpgradeChance()); // normally a 1 in 300 chance to generate upgrade every tick. (20 ticks/sec)
+        if (generate && upgrades.size() < waves.getMaxUpgrades()) {
+            upgrades.add(upgradePool.acquire()); // reuses a picked-up upgrade at a new random location
         }
     }
 
@@ -155,33 +500,69 @@ public class Game {
     /** Checks for any object overlapping with other objects. Enemies will be damaged from bullets, enemies damage the bee
      * and be pushed away from the bee. Upgrades will be picked up if the bee goes over them. Upgrades are also kept here
      * in terms of which upgrades are possible.
+     *
+     * Rather than testing every enemy against every bullet, the enemies, bullets and upgrades are sorted into grids
+     * and only objects that share a grid cell are tested, so the cost grows with the number of objects, not pairs.
      */
-    private void checkForCollisions() {
-        ArrayList<Bullet> bullets = mainBee.getBullets(); // Get array of current bullets.
-        for (Enemy enemy : enemies) {
-            if (mainBee.overlaps(enemy)) {
-                enemy.pushBackEnemy(enemy.getLocation(), enemy.getPrevLocation()); // Push enemies back from bee.
-                mainBee.setHealth(enemy.getDph());
+    void checkForCollisions() {
+        EntityStore bullets = mainBee.getBullets(); // Get the current bullets.
+        int beeLeft = mainBee.getLeftX(), beeTop = mainBee.getTopY();
+        int beeRight = mainBee.getRightX(), beeBottom = mainBee.getBottomY();
+
+        // Enemies that reached the bee hurt it and get pushed back.
+        fillGrid(enemyGrid, enemies);
+        int found = enemyGrid.query(beeLeft, beeTop, beeRight, beeBottom);
+        for (int i = 0; i < found; i++) {
+            int e = enemyGrid.getResult(i);
+            if (GameObject.overlaps(beeLeft, beeTop, beeRight, beeBottom,
+                    enemies.getLeftX(e), enemies.getTopY(e), enemies.getRightX(e), enemies.getBottomY(e))) {
+                // Push enemies back from bee, ten times as far as they moved this tick.
+                enemies.x[e] += (enemies.prevX[e] - enemies.x[e]) * 10;
+                enemies.y[e] += (enemies.prevY[e] - enemies.y[e]) * 10;
+                if (!invulnerable) {
+                    mainBee.setHealth(enemies.dph[e]);
+                }
             }
-            for (int i = 0; i < bullets.size(); i++) { // Check for any bullets hitting enemies.
-                if (enemy.overlaps(bullets.get(i))) {
-                    enemy.setHealth(10);
-                    bullets.remove(i);
+        }
+
+        // Check for any bullets hitting enemies, using where the enemies are after being pushed back.
+        if (!bullets.isEmpty()) {
+            fillGrid(bulletGrid, bullets);
+            boolean anyHit = false;
+            for (int e = 0; e < enemies.size(); e++) {
+                int left = enemies.getLeftX(e), top = enemies.getTopY(e);
+                int right = enemies.getRightX(e), bottom = enemies.getBottomY(e);
+                found = bulletGrid.query(left, top, right, bottom);
+                for (int i = 0; i < found; i++) {
+                    int b = bulletGrid.getResult(i);
+                    if (bullets.health[b] > 0 && GameObject.overlaps(left, top, right, bottom,
+                            bullets.getLeftX(b), bullets.getTopY(b), bullets.getRightX(b), bullets.getBottomY(b))) {
+                        enemies.health[e] -= 10;
+                        bullets.health[b] = 0; // A bullet only hits one enemy; removed below.
+                        anyHit = true;
+                    }
                 }
             }
+            if (anyHit) {
+                removeDead(bullets);
+            }
         }
-        for (int i = 0; i < upgrades.size(); i++) { // Get list of upgrades.
-            if (mainBee.overlaps(upgrades.get(i))) {
-                upgrades.remove(upgrades.get(i)); // Remove upgrade after bee runs over it.
-                int randNum = (int) (Math.random() * 2 + 1); // Generate random number 1 or 2.
+
+        fillGrid(upgradeGrid, upgrades);
+        found = upgradeGrid.query(beeLeft, beeTop, beeRight, beeBottom);
+        for (int i = found - 1; i >= 0; i--) { // Back to front, so removing one doesn't move the rest.
+            int u = upgradeGrid.getResult(i);
+            if (mainBee.overlaps(upgrades.get(u))) {
+                upgradePool.release(upgrades.remove(u)); // Remove upgrade after bee runs over it.
+                int randNum = pickupRandom.nextInt(1, 3); // Generate random number 1 or 2.
                 if (randNum == 1) {
                     // Regen Health
                     mainBee.heal();
                 }
                 else if (randNum == 2) {
                     // Nuke enemies
-                    for (Enemy enemy : enemies) {
-                        points += enemy.getPoints();
+                    for (int e = 0; e < enemies.size(); e++) {
+                        points += enemies.getPoints(e);
                     }
                     enemies.clear(); // Kill all enemies.
                 }
@@ -189,101 +570,107 @@ public class Game {
         }
     }
 
+    /** Rebuilds a grid from the bounding boxes of a list of objects, using their indexes in the list as ids. */
+    private static void fillGrid(SpatialHash grid, ArrayList<? extends GameObject> objects) {
+        grid.clear();
+        for (int i = 0; i < objects.size(); i++) {
+            GameObject object = objects.get(i);
+            grid.insert(i, object.getLeftX(), object.getTopY(), object.getRightX(), object.getBottomY());
+        }
+    }
+
+    /** Rebuilds a grid from the bounding boxes of the entities in a store, using their indexes as ids. */
+    private static void fillGrid(SpatialHash grid, EntityStore store) {
+        grid.clear();
+        for (int i = 0; i < store.size(); i++) {
+            grid.insert(i, store.getLeftX(i), store.getTopY(i), store.getRightX(i), store.getBottomY(i));
+        }
+    }
+
+    /** Removes every entity with no health left from a store. */
+    private static void removeDead(EntityStore store) {
+        for (int i = store.size() - 1; i >= 0; i--) { // From the end, since removing moves the last entity.
+            if (store.health[i] <= 0) {
+                store.remove(i);
+            }
+        }
+    }
+
     /** Removes any enemies that are dead. */
-    private void removeCommonEnemies() {
-        for (int i = 0; i < enemies.size(); i++) {
-            if (enemies.get(i).getHealth() <= 0) { // If enemy health is 0 or below, enemy dies.
-                points += enemies.get(i).getPoints();
+    void removeCommonEnemies() {
+        for (int i = enemies.size() - 1; i >= 0; i--) { // From the end, since removing moves the last enemy.
+            if (enemies.health[i] <= 0) { // If enemy health is 0 or below, enemy dies.
+                points += enemies.getPoints(i);
                 enemies.remove(i);
             }
         }
     }
 
-    /** Generates common enemies. Only generates 1 every 20 ticks (~1 seconds). A max of 20 enemies can be "alive." */
+    /** Generates common enemies as the wave scheduler says. Normally only generates 1 every 20 ticks (~1 seconds),
+     * and a max of 20 enemies can be "alive."
+     */
     private void generateCommonEnemies() {
-        if (gameCounter % 20 == 0 && enemies.size() < 20) {
-            int randNum = (int) (Math.random() * 10 + 1); // random number generated in range of 1-10.
+        int count = waves.getSpawnCount(gameCounter, enemies.size());
+        int chance = waves.getYellowJacketChance();
+        for (int i = 0; i < count; i++) {
+            int randNum = spawnRandom.nextInt(1, chance + 1); // random number generated in range of 1-10.
             if (randNum == 1) { // Basically means a 1 in 10 chance to spawn a stronger enemy than the red wasp.
-                YellowJacket newEnemy = new YellowJacket();
-                enemies.add(newEnemy);
+                enemies.add(YELLOW_JACKET, Enemy.SPAWN_X, Enemy.randomSpawnY(spawnRandom));
             }
             else {
-                RedWasp newEnemy = new RedWasp();
-                enemies.add(newEnemy); // Adds basic red wasp 9 out of 10 times.
+                enemies.add(RED_WASP, Enemy.SPAWN_X, Enemy.randomSpawnY(spawnRandom)); // Adds basic red wasp 9 out of 10 times.
             }
         }
     }
 
-    /** Makes all the enemies "move" on the canvas. Calls the function of the enemy class to move towards the player.
-     * Keeps track of previous location in order to push enemy back once enemy damages player.
+    /** Makes all the enemies "move" on the canvas, one step towards the player on each axis, the same way
+     * Enemy.moveTowardsPlayer does. Keeps track of previous location in order to push enemy back once enemy damages
+     * player, and to draw it moving smoothly.
+     *
+     * Where that step would take an enemy into a blocked part of the flow field or further from the bee, the enemy
+     * follows the flow field around instead. Nothing is blocked yet, so the straight step is always taken.
      */
-    private void moveEnemies() {
-        for (Enemy enemy : enemies) {
-            enemy.getPrevLocation().setX(enemy.getLocation().getX());
-            enemy.getPrevLocation().setY(enemy.getLocation().getY());
-            enemy.moveTowardsPlayer(mainBee);
-        }
-    }
-
-    /** Draws the enemies to the canvas. */
-    private void drawEnemies() {
+    void moveEnemies() {
+        int beeX = mainBee.getCenterX();
+        int beeY = mainBee.getCenterY();
+        flowField.update(beeX, beeY); // only searches when the bee has moved to another cell
+        int[] x = enemies.x, y = enemies.y;
         for (int i = 0; i < enemies.size(); i++) {
-            Enemy currentEnemy = enemies.get(i);
-            currentEnemy.draw(canvas);
-        }
-    }
-
-    /** Handles all keyboard inputs from player. */
-    private void handleKeyboard() {
-        if (canvas.isKeyPressed(KeyEvent.VK_UP) || canvas.isKeyPressed(KeyEvent.VK_W)) {
-            mainBee.moveUp();
-        }
-        if (canvas.isKeyPressed(KeyEvent.VK_DOWN) || canvas.isKeyPressed(KeyEvent.VK_S)) {
-            mainBee.moveDown();
-        }
-        if (canvas.isKeyPressed(KeyEvent.VK_LEFT) || canvas.isKeyPressed(KeyEvent.VK_A)) {
-            mainBee.moveLeft();
-        }
-        if (canvas.isKeyPressed(KeyEvent.VK_RIGHT) || canvas.isKeyPressed(KeyEvent.VK_D)) {
-            mainBee.moveRight();
-        }
-        if (mainBee.getReloadedStatus()) { // If the gun is reloaded, you can fire.
-            if (canvas.isKeyPressed(KeyEvent.VK_SPACE)) {
-                mainBee.fire();
-            }
-        }
-        else {
-            drawReloadStatusMessage(); // Draws message to reload if gun is out of ammo.
-        }
-        if (canvas.isKeyPressed(KeyEvent.VK_R)) {
-            if (mainBee.getReloadCounter() == 0 && mainBee.getAmmo() < 30) {
-                mainBee.reload();
+            enemies.prevX[i] = x[i];
+            enemies.prevY[i] = y[i];
+            int stepX = x[i] > beeX ? -Enemy.STEP : Enemy.STEP;
+            int stepY = y[i] > beeY ? -Enemy.STEP : Enemy.STEP;
+            if (!flowField.allowsMove(x[i], y[i], x[i] + stepX, y[i] + stepY)) {
+                int flowX = flowField.getStepX(x[i], y[i]);
+                int flowY = flowField.getStepY(x[i], y[i]);
+                // In the bee's own cell the field says stay put, so keep heading for the bee unless that's blocked.
+                if (flowX != 0 || flowY != 0 || flowField.isBlocked(x[i] + stepX, y[i] + stepY)) {
+                    stepX = flowX * Enemy.STEP;
+                    stepY = flowY * Enemy.STEP;
+                }
             }
+            x[i] += stepX;
+            y[i] += stepY;
         }
     }
 
-    /** Handles all the mouse clicking of the player. The mouse really only shoots a certain direction. I could not figure out
-     * a way to update the mouse location continually as the player holds down the mouse and moves it, thus the player must
-     * click for every bullet they want in a different direction.
-      */
-    private void handleMouse() {
-        if (canvas.isMousePressed()) {
-            double clickX = canvas.getMouseClickX();
-            double clickY = canvas.getMouseClickY();
-            mainBee.fireWithMouse(clickX, clickY);
-        }
+    /** Getter function for the flow field enemies follow to the main bee, where obstacles can be blocked off. */
+    FlowField getFlowField() {
+        return flowField;
     }
 
     /** Moves all the bullets using their x and y velocities determined from either a set movement if using "SPACE" to shoot
      * or calculated velocities if the mouse is used to fire.
      */
-    private void moveBullets() {
-        ArrayList<Bullet> bullets = mainBee.getBullets();
-        for (int w = 0; w < bullets.size(); w++) {
-            Bullet currentBullet = bullets.get(w);
-            currentBullet.setLocationX((int) (currentBullet.getCenterX() + currentBullet.getXVelocity())); // Moves the bullet one x coordinate per tick.
-            currentBullet.setLocationY((int) (currentBullet.getCenterY() + currentBullet.getYVelocity())); // Moves the bullet one y coordinate per tick.
-            if (!currentBullet.insideGameBoundaries()) { // If bullet leaves the canvas border, it is removed.
+    void moveBullets() {
+        EntityStore bullets = mainBee.getBullets();
+        for (int w = bullets.size() - 1; w >= 0; w--) { // From the end, since removing moves the last bullet.
+            bullets.prevX[w] = bullets.x[w];
+            bullets.prevY[w] = bullets.y[w];
+            bullets.x[w] = (int) (bullets.x[w] + bullets.vx[w]); // Moves the bullet one x coordinate per tick.
+            bullets.y[w] = (int) (bullets.y[w] + bullets.vy[w]); // Moves the bullet one y coordinate per tick.
+            // If bullet leaves the canvas border, it is removed.
+            if (bullets.getRightX(w) > 1280 || bullets.getBottomY(w) > 720 || bullets.getLeftX(w) < 0 || bullets.getTopY(w) < 0) {
                 bullets.remove(w);
             }
         }
@@ -304,24 +691,49 @@ public class Game {
         canvas.drawStringCentered(canvas.getWidth()/2, canvas.getHeight()/4, "PRESS R TO RELOAD", (canvas.getWidth()+canvas.getHeight())/40);
     }
 
-    /** Constructs the HUD for the player. Health, Ammo, and Points are displayed at the top of the canvas. */
-    private void constructHUD() {
-        heightOfHUD = canvas.getHeight() / 15;
-        mainBee.setTopBoundary(heightOfHUD);
-        canvas.setPenColor(Color.DARK_GRAY);
-        canvas.drawFilledRectangle(0, 0, canvas.getWidth(), heightOfHUD); // Top bar for HUD.
-        int widthOfBoxes = canvas.getWidth() / 7;
+    /** Constructs the HUD for the player. Health, Ammo, and Points from the snapshot are displayed at the top of the canvas.
+     * The HUD is only drawn again when one of them changes; otherwise the last drawing of it is reused.
+     */
+    private void constructHUD(GameSnapshot snapshot) {
+        RenderPhaseEvent event = new RenderPhaseEvent();
+        event.begin();
+        if (hudIndex < 0 || snapshot.health != hudHealth || snapshot.ammo != hudAmmo || snapshot.points != hudPoints) {
+            // The canvas may not have drawn the last few HUD images yet, so draw on the next one instead of those.
+            hudIndex = (hudIndex + 1) % HUD_IMAGES;
+            if (hudImages[hudIndex] == null) { // games that are only simulated never need them
+                int scale = canvas.getRenderScale(); // made at the canvas's scale, so the HUD is as sharp as the rest
+                hudImages[hudIndex] = new BufferedImage(canvas.getWidth() * scale, Math.max(1, heightOfHUD) * scale, BufferedImage.TYPE_INT_RGB);
+                hudRenderers[hudIndex] = new CanvasRenderer(hudImages[hudIndex], canvas.getWidth(), heightOfHUD);
+            }
+            drawHUD(hudRenderers[hudIndex], snapshot.health, snapshot.ammo, snapshot.points);
+            hudHealth = snapshot.health;
+            hudAmmo = snapshot.ammo;
+            hudPoints = snapshot.points;
+        }
+        canvas.drawImage(0, 0, hudImages[hudIndex], canvas.getWidth(), Math.max(1, heightOfHUD));
+        if (event.shouldCommit()) {
+            event.phase = "constructHUD";
+            event.sprites = snapshot.spriteCount;
+            event.commit();
+        }
+    }
+
+    /** Draws the HUD showing the given health, ammo and points. */
+    private void drawHUD(CanvasRenderer hud, int health, int ammo, int points) {
+        int width = canvas.getWidth();
+        hud.setPenColor(Color.DARK_GRAY);
+        hud.fillRect(0, 0, width, heightOfHUD); // Top bar for HUD.
+        int widthOfBoxes = width / 7;
         int heightOfBoxes = (heightOfHUD / 7) * 6;
-        Location locationForHealth = new Location(widthOfBoxes, heightOfHUD / 7);
-        Location locationForAmmo = new Location(widthOfBoxes * 3, heightOfHUD / 7);
-        Location locationForPoints = new Location(widthOfBoxes * 5, heightOfHUD / 7);
-        canvas.setPenColor(Color.ORANGE);
-        canvas.drawFilledRectangle(locationForHealth.getX(), locationForHealth.getY(), widthOfBoxes, heightOfBoxes);
-        canvas.drawFilledRectangle(locationForAmmo.getX(), locationForAmmo.getY(), widthOfBoxes, heightOfBoxes);
-        canvas.drawFilledRectangle(locationForPoints.getX(), locationForPoints.getY(), widthOfBoxes, heightOfBoxes);
-        canvas.setPenColor(Color.RED);
-        canvas.drawStringCentered(widthOfBoxes / 2 + locationForHealth.getX(), heightOfBoxes / 2 + locationForHealth.getY(), "Health: " + String.valueOf(mainBee.getHealth()), (int) (heightOfBoxes * 0.7));
-        canvas.drawStringCentered(widthOfBoxes / 2 + locationForAmmo.getX(), heightOfBoxes / 2 + locationForAmmo.getY(), "Ammo: " + String.valueOf(mainBee.getAmmo()), (int) (heightOfBoxes * 0.7));
-        canvas.drawStringCentered(widthOfBoxes / 2 + locationForPoints.getX(), heightOfBoxes / 2 + locationForPoints.getY(), "Points: " + String.valueOf(points), (int) (heightOfBoxes * 0.7));
-    }
-}
\ No newline at end of file
+        int boxTop = heightOfHUD / 7;
+        hud.setPenColor(Color.ORANGE);
+        hud.fillRect(widthOfBoxes, boxTop, widthOfBoxes, heightOfBoxes);
+        hud.fillRect(widthOfBoxes * 3, boxTop, widthOfBoxes, heightOfBoxes);
+        hud.fillRect(widthOfBoxes * 5, boxTop, widthOfBoxes, heightOfBoxes);
+        hud.setPenColor(Color.RED);
+        int fontSize = (int) (heightOfBoxes * 0.7);
+        hud.drawStringCentered(widthOfBoxes / 2 + widthOfBoxes, heightOfBoxes / 2 + boxTop, "Health: " + health, fontSize);
+        hud.drawStringCentered(widthOfBoxes / 2 + widthOfBoxes * 3, heightOfBoxes / 2 + boxTop, "Ammo: " + ammo, fontSize);
+        hud.drawStringCentered(widthOfBoxes / 2 + widthOfBoxes * 5, heightOfBoxes / 2 + boxTop, "Points: " + points, fontSize);
+    }
+}
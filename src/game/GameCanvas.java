@@ -0,0 +1,154 @@
+package game;
+
+import java.awt.*;
+
+/** A GameCanvas is a surface a game can draw on and read the player's keyboard and mouse input from.
+ * SimpleCanvas shows it in a window on the screen; HeadlessCanvas needs no display at all.
+ */
+public interface GameCanvas extends InputSource {
+    /** Clears the canvas with the current background color. */
+    void clear();
+
+    /** Draws a circle with the center at (centerX, centerY) and the specified radius. */
+    void drawCircle(int centerX, int centerY, int radius);
+
+    /** Draws an oval with the center at (centerX, centerY) and the specified radii in the x and y directions. */
+    void drawOval(int centerX, int centerY, int radiusX, int radiusY);
+
+    /** Draws a rectangle with the left corner at (topLeftX, topLeftY) and the specified width and height. */
+    void drawRectangle(int topLeftX, int topLeftY, int width, int height);
+
+    /** Draws the outline of a polygon through the given points. */
+    void drawPolygon(int[] xPoints, int[] yPoints);
+
+    /** Draws a polygon through the given points, filled with the current pen color. */
+    void drawFilledPolygon(int[] xPoints, int[] yPoints);
+
+    /** Draws a circle filled with the current pen color. */
+    void drawFilledCircle(int centerX, int centerY, int radius);
+
+    /** Draws an oval filled with the current pen color. */
+    void drawFilledOval(int centerX, int centerY, int radiusX, int radiusY);
+
+    /** Draws a rectangle filled with the current pen color. */
+    void drawFilledRectangle(int topLeftX, int topLeftY, int width, int height);
+
+    /** Draws a line from (x1, y1) to (x2, y2). */
+    void drawLine(int x1, int y1, int x2, int y2);
+
+    /** Draws text with the lower left corner of the text at the point (x, y). */
+    void drawString(int x, int y, String text);
+
+    /** Draws text with the center of the text at the point (x, y). */
+    void drawStringCentered(int x, int y, String text);
+
+    /** Draws text with the lower left corner of the text at the point (x, y), in the specified font size. */
+    void drawString(int x, int y, String text, int fontSize);
+
+    /** Draws text with the center of the text at the point (x, y), in the specified font size. */
+    void drawStringCentered(int x, int y, String text, int fontSize);
+
+    /** Sets the thickness of the lines drawn for the borders of shapes. */
+    void setLineThickness(int size);
+
+    /** Draws an image file at its own size with the top left corner of the image at the point (x, y). */
+    void drawImage(int x, int y, String filename);
+
+    /** Draws an image file stretched to the given size with the top left corner of the image at the point (x, y). */
+    void drawImage(int x, int y, String filename, int width, int height);
+
+    /** Clears the canvas and draws an image file stretched to fill it, as the background of a new frame. Like
+     * clear() followed by drawImage(0, 0, filename, getWidth(), getHeight()), but a canvas that knows the frame
+     * starts from the same background as the last one can skip redrawing the parts of it nothing was drawn over.
+     */
+    void drawBackground(String filename);
+
+    /** Draws an image at its own size with the top left corner of the image at the point (x, y). The canvas may
+     * not draw the image until update() or later, so don't change it until a few frames after handing it over.
+     */
+    void drawImage(int x, int y, Image image);
+
+    /** Draws an image stretched to width by height canvas pixels with the top left corner of the image at the point
+     * (x, y). An image getRenderScale() times that size is copied pixel for pixel, so an image made at the canvas's
+     * render scale stays sharp on a HiDPI screen. As with drawImage(x, y, image), don't change it straight away.
+     */
+    void drawImage(int x, int y, Image image, int width, int height);
+
+    /** Sets the current pen color.  All future drawing will take place using this color until changed. */
+    void setPenColor(Color c);
+
+    /** Sets the canvas background color.  Must call clear() to take effect. */
+    void setBackgroundColor(Color c);
+
+    /** Returns the color of the pixel at location (x, y). */
+    Color getPixelColor(int x, int y);
+
+    /** Sets the pixel color at location (x, y). */
+    void setPixelColor(int x, int y, Color c);
+
+    /** Copies the colors of a width by height region with its top left corner at (x, y) into argb, row by row, as
+     * ARGB ints (see Color.getRGB). Returns argb, or a new array if argb is null or too small to hold the region.
+     * Much faster than calling getPixelColor for every pixel.
+     */
+    int[] getPixels(int x, int y, int width, int height, int[] argb);
+
+    /** Sets the colors of a width by height region with its top left corner at (x, y) from argb, row by row, as
+     * ARGB ints. argb can be changed or reused as soon as this returns.
+     */
+    void setPixels(int x, int y, int width, int height, int[] argb);
+
+    /** Makes everything drawn since the last update appear at once. */
+    void update();
+
+    /** Shows the canvas, if it's currently hidden. */
+    void show();
+
+    /** Hides the canvas, if it's currently shown. */
+    void hide();
+
+    /** Pauses the program for the given number of milliseconds. */
+    void pause(int milliseconds);
+
+    /** Returns the current time in nanoseconds, measured by the same clock that pause() waits on. Only the
+     * difference between two readings is meaningful, as with System.nanoTime(). */
+    long nanoTime();
+
+    /** Returns true if pause() really waits and nanoTime() follows the wall clock, so the program may draw on one
+     * thread while it works on another. */
+    boolean isRealTime();
+
+    /** Returns the width of the canvas in pixels. */
+    int getWidth();
+
+    /** Returns the height of the canvas in pixels. */
+    int getHeight();
+
+    /** Returns how many image pixels across each canvas pixel is drawn with: 2 on a HiDPI screen, otherwise 1. */
+    int getRenderScale();
+
+    /** Pauses the program until the mouse is clicked on the canvas. */
+    void waitForClick();
+
+    /** Returns true if the key with the given key code (see KeyEvent) is currently held down. */
+    boolean isKeyPressed(int keycode);
+
+    /** Returns true if there are typed characters that haven't been read by nextKeyTyped() yet. */
+    boolean hasNextKeyTyped();
+
+    /** Returns the oldest typed character that hasn't been read yet. */
+    char nextKeyTyped();
+
+    /** Returns true if a mouse button is currently held down. */
+    boolean isMousePressed();
+
+    /** Retrieves the x-coordinate of the most recent mouse click. */
+    int getMouseClickX();
+
+    /** Retrieves the y-coordinate of the most recent mouse click. */
+    int getMouseClickY();
+
+    /** Returns a snapshot of every key and mouse event since the last call, and of what is held down now. Meant to
+     * be called once per tick, from the thread that runs the game.
+     */
+    InputSnapshot pollInput();
+}
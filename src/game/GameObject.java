@@ -28,6 +28,12 @@ public class GameObject {
     /** The width and height of the image. */
     protected int height, width;
 
+    /** Where the center of the object was at the start of the current game tick, used to draw it between ticks. */
+    private int lastTickX, lastTickY;
+
+    /** Whether lastTickX and lastTickY have been set since the object was created. */
+    private boolean hasLastTick;
+
     /** Create a "default" GameObject.  Feel free to change these defaults,
      * or add other constructors to let you set them as arguments.
      */
@@ -42,23 +48,65 @@ public class GameObject {
     /** GameObjects are drawn as an image with a 2-pixel border.  Feel free to change
      * this code here or override in a subclass.
      */
-    public void draw(SimpleCanvas canvas) {
+    public void draw(GameCanvas canvas) {
         canvas.drawImage(getLeftX(), getTopY(), imageFilename, width, height);
     }
 
+    /** Remembers the current location as the start of this tick's movement, so that frames drawn between ticks can
+     * move the object smoothly. Called at the start of every tick.
+     */
+    public void rememberLocation() {
+        lastTickX = location.getX();
+        lastTickY = location.getY();
+        hasLastTick = true;
+    }
+
+    /** Puts this object back the way a newly constructed one starts, so an ObjectPool can hand it out again. The
+     * location is reused rather than replaced. Subclasses that add state should override this and call super.reset().
+     */
+    public void reset() {
+        location.setX(0);
+        location.setY(0);
+        hasLastTick = false;
+    }
+
+    /** Get the x-coordinate of the center of this object at the start of this tick. */
+    public int getLastTickX() {
+        return hasLastTick ? lastTickX : location.getX(); // created during this tick, so it hasn't moved yet
+    }
+
+    /** Get the y-coordinate of the center of this object at the start of this tick. */
+    public int getLastTickY() {
+        return hasLastTick ? lastTickY : location.getY();
+    }
+
     /** Checks to see if any object's location is within another object. Basically detects if objects are touching.
      * This function takes in another GameObject to check for overlap with it.
      */
     public boolean overlaps(GameObject other) {
-        boolean topLeftInside = isInside(other.getLeftX(), other.getTopY());
-        boolean topRightInside = isInside(other.getRightX(), other.getTopY());
-        boolean bottomRightInside = isInside(other.getRightX(), other.getBottomY());
-        boolean bottomLeftInside = isInside(other.getLeftX(), other.getBottomY());
+        return overlaps(getLeftX(), getTopY(), getRightX(), getBottomY(),
+                other.getLeftX(), other.getTopY(), other.getRightX(), other.getBottomY());
+    }
+
+    /** The same test as overlaps(GameObject), on plain bounding boxes: returns true if any corner of the other box
+     * is inside the first box. Used for entities that are kept in an EntityStore rather than as GameObjects.
+     */
+    public static boolean overlaps(int left, int top, int right, int bottom,
+                                   int otherLeft, int otherTop, int otherRight, int otherBottom) {
+        boolean topLeftInside = isInside(left, top, right, bottom, otherLeft, otherTop);
+        boolean topRightInside = isInside(left, top, right, bottom, otherRight, otherTop);
+        boolean bottomRightInside = isInside(left, top, right, bottom, otherRight, otherBottom);
+        boolean bottomLeftInside = isInside(left, top, right, bottom, otherLeft, otherBottom);
 
         // If any corner is inside the other object, this function returns true.
         return topLeftInside || topRightInside || bottomRightInside || bottomLeftInside;
     }
 
+    /** Return true if the point (x, y) is inside the given bounding box. */
+    private static boolean isInside(int left, int top, int right, int bottom, int x, int y) {
+        return x > left && x < right && y > top && y < bottom;
+    }
+
     /** Return true if this point (x, y) is inside the bounds of this GameObject. */
     public boolean isInside(int x, int y) {
         return x > getLeftX() && x < getRightX() && y > getTopY() && y < getBottomY();
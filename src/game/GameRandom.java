@@ -0,0 +1,68 @@
+package game;
+
+import java.util.SplittableRandom;
+
+/** A GameRandom is the source of every random choice a game makes. Each game has its own, started from a seed, so
+ * a run can be repeated exactly by giving the same seed and the same input again, and games running side by side
+ * never share a generator. Each part of a game that makes random choices takes its own generator with split(), so
+ * adding a random choice to one part doesn't change the choices made by the others.
+ *
+ * A GameRandom is not thread safe; give each thread its own with split().
+ */
+class GameRandom {
+    // Instance variables
+    private final long seed; // The seed this generator started from, or 0 if it was split from another.
+    private final SplittableRandom random; // Where the numbers come from.
+
+    /** Constructs a generator started from a seed that is different every time. */
+    public GameRandom() {
+        this(newSeed());
+    }
+
+    /** Constructs a generator started from the given seed. Generators with the same seed make the same choices. */
+    public GameRandom(long seed) {
+        this(seed, new SplittableRandom(seed));
+    }
+
+    private GameRandom(long seed, SplittableRandom random) {
+        this.seed = seed;
+        this.random = random;
+    }
+
+    /** Returns a seed that is different every time, for a game that doesn't need to be repeated. */
+    public static long newSeed() {
+        return new SplittableRandom().nextLong();
+    }
+
+    /** Returns a new generator, independent of this one, that makes the same choices every time this generator
+     * is split at the same point.
+     */
+    public GameRandom split() {
+        return new GameRandom(0, random.split());
+    }
+
+    /** Returns a random int from 0 up to but not including bound. */
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    /** Returns a random int from origin up to but not including bound. */
+    public int nextInt(int origin, int bound) {
+        return random.nextInt(origin, bound);
+    }
+
+    /** Returns a random double from 0 up to but not including 1. */
+    public double nextDouble() {
+        return random.nextDouble();
+    }
+
+    /** Returns true with a chance of 1 in n. */
+    public boolean oneIn(int n) {
+        return random.nextInt(n) == 0;
+    }
+
+    /** Getter function for the seed this generator started from, or 0 if it was split from another. */
+    public long getSeed() {
+        return seed;
+    }
+}
@@ -0,0 +1,123 @@
+package game;
+
+import java.util.Arrays;
+
+/** A GameSnapshot is a copy of everything needed to draw the game as it was at the end of one tick: where each
+ * sprite started and ended the tick, and the numbers shown on the HUD. The simulation fills a snapshot after every
+ * tick and the renderer draws from it, so drawing never reads the live game objects.
+ *
+ * Snapshots are reused rather than reallocated; their arrays only grow when a tick has more sprites than any before.
+ */
+class GameSnapshot {
+    // Instance variables
+    volatile long sequence; // Increases with every published snapshot, so the renderer can tell which is newest.
+    long time; // When the snapshot was published, on the canvas's clock.
+    int spriteCount; // The number of sprites, in the order they are drawn.
+    int[] fromX = new int[64], fromY = new int[64]; // Where each sprite's center was at the start of the tick.
+    int[] toX = new int[64], toY = new int[64]; // Where each sprite's center was at the end of the tick.
+    int[] width = new int[64], height = new int[64]; // The size each sprite is drawn at.
+    String[] image = new String[64]; // The image file for each sprite.
+    int health, ammo, points; // The values shown on the HUD.
+    boolean reloadPrompt; // Whether to tell the player to reload.
+    private int[] seen = new int[64]; // Open addressing table of entity indexes + 1 (0 for empty), for addSprites.
+    private int[] kept = new int[64]; // The entities addSprites draws, last first.
+
+    /** Removes every sprite, ready to be filled again. */
+    public void clear() {
+        spriteCount = 0;
+    }
+
+    /** Adds a sprite for the given object, moving from where it was at the start of the tick to where it is now. */
+    public void addSprite(GameObject object) {
+        if (spriteCount == toX.length) {
+            grow();
+        }
+        int i = spriteCount++;
+        fromX[i] = object.getLastTickX();
+        fromY[i] = object.getLastTickY();
+        toX[i] = object.getCenterX();
+        toY[i] = object.getCenterY();
+        width[i] = object.getWidth();
+        height[i] = object.getHeight();
+        image[i] = object.getImageFilename();
+    }
+
+    /** Adds a sprite for the entity at index i of a store, moving from where it was at the start of the tick. */
+    public void addSprite(EntityStore store, int i) {
+        if (spriteCount == toX.length) {
+            grow();
+        }
+        int s = spriteCount++;
+        fromX[s] = store.prevX[i];
+        fromY[s] = store.prevY[i];
+        toX[s] = store.x[i];
+        toY[s] = store.y[i];
+        width[s] = store.getWidth(i);
+        height[s] = store.getHeight(i);
+        image[s] = store.getImageFilename(i);
+    }
+
+    /** Adds a sprite for every entity in a store, in order, except that of entities of the same type that started
+     * and ended the tick in exactly the same place only the last is added. This is not exact: wherever the sprite is
+     * partly transparent the stack is blended once instead of several times, and sprites added in between no longer
+     * have the dropped ones beneath them. In a swarm, enemies that meet move together from then on, so this leaves a
+     * fraction of the sprites to draw; everywhere else, add each entity with addSprite.
+     */
+    public void addSprites(EntityStore store) {
+        int size = store.size();
+        int capacity = Integer.highestOneBit(Math.max(16, size * 2) - 1) << 1; // a power of two, under half full
+        if (seen.length < capacity) {
+            seen = new int[capacity];
+        }
+        else {
+            Arrays.fill(seen, 0, capacity, 0);
+        }
+        if (kept.length < size) {
+            kept = new int[Math.max(size, kept.length * 2)];
+        }
+        int mask = capacity - 1;
+        int keptCount = 0;
+        for (int i = size - 1; i >= 0; i--) { // from the end, so the last of each stack is the one kept
+            int hash = (((store.type[i] * 31 + store.x[i]) * 31 + store.y[i]) * 31 + store.prevX[i]) * 31 + store.prevY[i];
+            int slot = (hash ^ hash >>> 16) & mask;
+            boolean duplicate = false;
+            while (seen[slot] != 0) {
+                int j = seen[slot] - 1;
+                if (store.type[j] == store.type[i] && store.x[j] == store.x[i] && store.y[j] == store.y[i]
+                        && store.prevX[j] == store.prevX[i] && store.prevY[j] == store.prevY[i]) {
+                    duplicate = true;
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (!duplicate) {
+                seen[slot] = i + 1;
+                kept[keptCount++] = i;
+            }
+        }
+        for (int k = keptCount - 1; k >= 0; k--) {
+            addSprite(store, kept[k]);
+        }
+    }
+
+    /** Returns the x-coordinate of a sprite's center, alpha of the way (0 to 1) through the tick. */
+    public int getX(int sprite, double alpha) {
+        return (int) Math.round(fromX[sprite] + (toX[sprite] - fromX[sprite]) * alpha);
+    }
+
+    /** Returns the y-coordinate of a sprite's center, alpha of the way (0 to 1) through the tick. */
+    public int getY(int sprite, double alpha) {
+        return (int) Math.round(fromY[sprite] + (toY[sprite] - fromY[sprite]) * alpha);
+    }
+
+    private void grow() {
+        int size = toX.length * 2;
+        fromX = Arrays.copyOf(fromX, size);
+        fromY = Arrays.copyOf(fromY, size);
+        toX = Arrays.copyOf(toX, size);
+        toY = Arrays.copyOf(toY, size);
+        width = Arrays.copyOf(width, size);
+        height = Arrays.copyOf(height, size);
+        image = Arrays.copyOf(image, size);
+    }
+}
@@ -0,0 +1,289 @@
+package game;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.BitSet;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+
+/** A HeadlessCanvas is a GameCanvas that needs no display. It either draws into a plain BufferedImage, which can be
+ * inspected with getImage(), or skips drawing entirely. Keyboard and mouse input is scripted by calling pressKey(),
+ * releaseKey(), pressMouse() and releaseMouse(), usually from an InputScript that runs every time the game pauses.
+ * pause() returns immediately and just moves the canvas's clock forward, so a game runs as fast as the machine
+ * allows while still seeing time pass at the usual rate.
+ *
+ * A HeadlessCanvas is not thread safe; use it from the thread that runs the game.
+ */
+public class HeadlessCanvas implements GameCanvas {
+    // Instance variables
+    private final int width, height; // The size of the canvas in pixels.
+    private final CanvasRenderer renderer; // Draws on the image, or null if drawing is skipped.
+    private final BitSet keysDown; // Key codes currently held down.
+    private final LinkedList<Character> keysTyped; // Typed characters that haven't been read yet.
+    private boolean mousePressed; // Whether a mouse button is held down.
+    private int lastMouseClickX, lastMouseClickY; // Where the mouse was last pressed or released.
+    private InputScript script; // Called every time the game pauses, or null.
+    private int pauses; // The number of times pause() has been called.
+    private long clock; // The current time in nanoseconds. Only moves forward when the program pauses.
+    private final InputQueue input = new InputQueue(); // Every key and mouse event, for pollInput().
+
+    /** An InputScript feeds input to a HeadlessCanvas while a game runs. */
+    public interface InputScript {
+        /** Called each time the game pauses (once per frame) with the number of earlier pauses. */
+        void beforePause(HeadlessCanvas canvas, int pauseCount);
+    }
+
+    /** Creates a new HeadlessCanvas of the specified width and height that draws into an image. */
+    public HeadlessCanvas(int width, int height) {
+        this(width, height, true);
+    }
+
+    /** Creates a new HeadlessCanvas of the specified width and height. If render is false, drawing is skipped. */
+    public HeadlessCanvas(int width, int height, boolean render) {
+        this.width = width;
+        this.height = height;
+        if (render) {
+            renderer = new CanvasRenderer(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), width, height);
+        }
+        else {
+            renderer = null;
+        }
+        keysDown = new BitSet();
+        keysTyped = new LinkedList<>();
+    }
+
+    /** Getter function for the image being drawn on, or null if drawing is skipped. */
+    public BufferedImage getImage() {
+        return renderer == null ? null : renderer.getImage();
+    }
+
+    /** Sets the script that provides input while the game runs. */
+    public void setInputScript(InputScript script) {
+        this.script = script;
+    }
+
+    /** Holds down the key with the given key code. */
+    public void pressKey(int keycode) {
+        keysDown.set(keycode);
+        input.post(new InputEvent(InputEvent.KEY_PRESSED, keycode, 0, 0, clock));
+    }
+
+    /** Releases the key with the given key code. */
+    public void releaseKey(int keycode) {
+        keysDown.clear(keycode);
+        input.post(new InputEvent(InputEvent.KEY_RELEASED, keycode, 0, 0, clock));
+    }
+
+    /** Types a character, as if its key was pressed and released. */
+    public void typeKey(char c) {
+        keysTyped.addFirst(c);
+    }
+
+    /** Presses a mouse button at (x, y). */
+    public void pressMouse(int x, int y) {
+        lastMouseClickX = x;
+        lastMouseClickY = y;
+        mousePressed = true;
+        input.post(new InputEvent(InputEvent.MOUSE_PRESSED, 0, x, y, clock));
+    }
+
+    /** Moves the mouse to (x, y) with the button held down. */
+    public void dragMouse(int x, int y) {
+        lastMouseClickX = x;
+        lastMouseClickY = y;
+        input.post(new InputEvent(InputEvent.MOUSE_DRAGGED, 0, x, y, clock));
+    }
+
+    /** Releases the mouse button at (x, y). */
+    public void releaseMouse(int x, int y) {
+        lastMouseClickX = x;
+        lastMouseClickY = y;
+        mousePressed = false;
+        input.post(new InputEvent(InputEvent.MOUSE_RELEASED, 0, x, y, clock));
+    }
+
+    public void clear() {
+        if (renderer != null) renderer.clear();
+    }
+
+    public void drawCircle(int centerX, int centerY, int radius) {
+        if (renderer != null) renderer.drawOval(centerX - radius, centerY - radius, radius * 2, radius * 2);
+    }
+
+    public void drawOval(int centerX, int centerY, int radiusX, int radiusY) {
+        if (renderer != null) renderer.drawOval(centerX - radiusX, centerY - radiusY, radiusX * 2, radiusY * 2);
+    }
+
+    public void drawRectangle(int topLeftX, int topLeftY, int width, int height) {
+        if (renderer != null) renderer.drawRect(topLeftX, topLeftY, width, height);
+    }
+
+    public void drawPolygon(int[] xPoints, int[] yPoints) {
+        if (renderer != null) renderer.drawPolygon(xPoints, yPoints);
+    }
+
+    public void drawFilledPolygon(int[] xPoints, int[] yPoints) {
+        if (renderer != null) renderer.fillPolygon(xPoints, yPoints);
+    }
+
+    public void drawFilledCircle(int centerX, int centerY, int radius) {
+        if (renderer != null) renderer.fillOval(centerX - radius, centerY - radius, radius * 2, radius * 2);
+    }
+
+    public void drawFilledOval(int centerX, int centerY, int radiusX, int radiusY) {
+        if (renderer != null) renderer.fillOval(centerX - radiusX, centerY - radiusY, radiusX * 2, radiusY * 2);
+    }
+
+    public void drawFilledRectangle(int topLeftX, int topLeftY, int width, int height) {
+        if (renderer != null) renderer.fillRect(topLeftX, topLeftY, width, height);
+    }
+
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        if (renderer != null) renderer.drawLine(x1, y1, x2, y2);
+    }
+
+    public void drawString(int x, int y, String text) {
+        drawString(x, y, text, 12);
+    }
+
+    public void drawStringCentered(int x, int y, String text) {
+        drawStringCentered(x, y, text, 12);
+    }
+
+    public void drawString(int x, int y, String text, int fontSize) {
+        if (renderer != null) renderer.drawString(x, y, text, fontSize);
+    }
+
+    public void drawStringCentered(int x, int y, String text, int fontSize) {
+        if (renderer != null) renderer.drawStringCentered(x, y, text, fontSize);
+    }
+
+    public void setLineThickness(int size) {
+        if (renderer != null) renderer.setLineThickness(size);
+    }
+
+    public void drawImage(int x, int y, String filename) {
+        if (renderer != null) renderer.drawImage(ImageCache.shared().get(filename), x, y);
+    }
+
+    public void drawImage(int x, int y, String filename, int width, int height) {
+        if (renderer != null && width > 0 && height > 0) {
+            renderer.drawImage(SpriteCache.shared().get(filename, width, height), x, y);
+        }
+    }
+
+    public void drawBackground(String filename) {
+        clear();
+        drawImage(0, 0, filename, width, height);
+    }
+
+    public void drawImage(int x, int y, Image image) {
+        if (renderer != null) renderer.drawImage(image, x, y);
+    }
+
+    public void drawImage(int x, int y, Image image, int width, int height) {
+        if (renderer != null) renderer.drawImage(image, x, y, width, height);
+    }
+
+    public void setPenColor(Color c) {
+        if (renderer != null) renderer.setPenColor(c);
+    }
+
+    public void setBackgroundColor(Color c) {
+        if (renderer != null) renderer.setBackgroundColor(c);
+    }
+
+    /** Returns the color of the pixel at (x, y), or null if drawing is skipped. */
+    public Color getPixelColor(int x, int y) {
+        return renderer == null ? null : new Color(renderer.getPixel(x, y), true);
+    }
+
+    public void setPixelColor(int x, int y, Color c) {
+        if (renderer != null) renderer.setPixel(x, y, c.getRGB());
+    }
+
+    /** Copies a region of pixels into argb, or returns argb unchanged if drawing is skipped. */
+    public int[] getPixels(int x, int y, int width, int height, int[] argb) {
+        return renderer == null ? argb : renderer.getPixels(x, y, width, height, argb);
+    }
+
+    public void setPixels(int x, int y, int width, int height, int[] argb) {
+        if (renderer != null) renderer.setPixels(x, y, width, height, argb);
+    }
+
+    /** Drawing happens immediately, so there is nothing to update. */
+    public void update() {
+    }
+
+    public void show() {
+    }
+
+    public void hide() {
+    }
+
+    /** Runs the input script, if any, and moves the clock forward instead of waiting. */
+    public void pause(int milliseconds) {
+        if (script != null) {
+            script.beforePause(this, pauses);
+        }
+        pauses++;
+        clock += milliseconds * 1_000_000L;
+    }
+
+    /** Returns the time on the canvas's clock, which only moves forward when the program pauses. */
+    public long nanoTime() {
+        return clock;
+    }
+
+    /** Returns false, since time only passes when the program pauses. */
+    public boolean isRealTime() {
+        return false;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getRenderScale() {
+        return renderer == null ? 1 : renderer.getScale();
+    }
+
+    /** Returns immediately, as if the player clicked right away. */
+    public void waitForClick() {
+    }
+
+    public boolean isKeyPressed(int keycode) {
+        return keysDown.get(keycode);
+    }
+
+    public boolean hasNextKeyTyped() {
+        return !keysTyped.isEmpty();
+    }
+
+    public char nextKeyTyped() {
+        if (keysTyped.isEmpty()) {
+            throw new NoSuchElementException("your program has already processed all keystrokes");
+        }
+        return keysTyped.removeLast();
+    }
+
+    public boolean isMousePressed() {
+        return mousePressed;
+    }
+
+    public int getMouseClickX() {
+        return lastMouseClickX;
+    }
+
+    public int getMouseClickY() {
+        return lastMouseClickY;
+    }
+
+    public InputSnapshot pollInput() {
+        return input.poll();
+    }
+}
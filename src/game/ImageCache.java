@@ -0,0 +1,103 @@
+package game;
+
+import javax.swing.*;
+import java.awt.*;
+import java.net.MalformedURLException;
+import java.net.URL;
+
+/** An ImageCache holds images that have already been decoded, keyed by the filename (or URL) they were loaded from.
+ * All canvases share one cache, so an image file is only read from disk the first time it is drawn. Once the cache
+ * holds more images than its capacity, the least recently used image is evicted.
+ */
+public class ImageCache {
+    private static final int DEFAULT_CAPACITY = 64; // Far more than the handful of images the game uses.
+    private static final ImageCache SHARED = new ImageCache(DEFAULT_CAPACITY);
+
+    // Instance variables
+    private final LruCache<String, Image> images; // Decoded images in least to most recently used order.
+    private long hits; // The number of lookups answered from the cache.
+    private long misses; // The number of lookups that had to decode the image.
+
+    /** Constructs a new, empty cache that holds at most the given number of images. */
+    public ImageCache(int capacity) {
+        images = new LruCache<>(capacity);
+    }
+
+    /** Returns the cache shared by every canvas in this program. */
+    public static ImageCache shared() {
+        return SHARED;
+    }
+
+    /** Returns the decoded image for the given filename or URL, loading it only if it is not already cached. */
+    public synchronized Image get(String filename) {
+        if (filename == null) throw new IllegalArgumentException();
+        Image image = images.get(filename);
+        if (image != null) {
+            hits++;
+            return image;
+        }
+        misses++;
+        image = load(filename);
+        images.put(filename, image);
+        return image;
+    }
+
+    /** Getter function for the number of lookups that were answered from the cache. */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /** Getter function for the number of lookups that had to load the image. */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /** Getter function for the number of images currently cached. */
+    public synchronized int size() {
+        return images.size();
+    }
+
+    /** Getter function for the maximum number of images the cache will hold. */
+    public int getCapacity() {
+        return images.getCapacity();
+    }
+
+    /** Removes every image from the cache and resets the hit and miss counters. */
+    public synchronized void clear() {
+        images.clear();
+        hits = 0;
+        misses = 0;
+    }
+
+    /** Decodes an image from a file, a URL, or the classpath, in that order. */
+    private static Image load(String filename) {
+        // to read from file
+        ImageIcon icon = new ImageIcon(filename);
+
+        // try to read from URL
+        if ((icon == null) || (icon.getImageLoadStatus() != MediaTracker.COMPLETE)) {
+            try {
+                URL url = new URL(filename);
+                icon = new ImageIcon(url);
+            } catch (MalformedURLException e) {
+                /* not a url */
+            }
+        }
+
+        // in case file is inside a .jar (classpath relative to SimpleCanvas)
+        if ((icon == null) || (icon.getImageLoadStatus() != MediaTracker.COMPLETE)) {
+            URL url = SimpleCanvas.class.getResource(filename);
+            if (url != null)
+                icon = new ImageIcon(url);
+        }
+
+        // in case file is inside a .jar (classpath relative to root of jar)
+        if ((icon == null) || (icon.getImageLoadStatus() != MediaTracker.COMPLETE)) {
+            URL url = SimpleCanvas.class.getResource("/" + filename);
+            if (url == null) throw new IllegalArgumentException("image " + filename + " not found");
+            icon = new ImageIcon(url);
+        }
+
+        return icon.getImage();
+    }
+}
@@ -0,0 +1,25 @@
+package game;
+
+/** An InputEvent is one keyboard or mouse event, as a canvas recorded it for its InputQueue. */
+final class InputEvent {
+    public static final int KEY_PRESSED = 0;
+    public static final int KEY_RELEASED = 1;
+    public static final int MOUSE_PRESSED = 2;
+    public static final int MOUSE_RELEASED = 3;
+    public static final int MOUSE_DRAGGED = 4;
+
+    // Instance variables
+    final int type; // One of the constants above.
+    final int keycode; // The key, for key events.
+    final int x, y; // Where the mouse was, for mouse events.
+    final long time; // When the event happened, on the canvas's clock.
+
+    /** Constructs an event of the given type. Fields that don't apply to the type should be 0. */
+    public InputEvent(int type, int keycode, int x, int y, long time) {
+        this.type = type;
+        this.keycode = keycode;
+        this.x = x;
+        this.y = y;
+        this.time = time;
+    }
+}
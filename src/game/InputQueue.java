@@ -0,0 +1,86 @@
+package game;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/** An InputQueue collects keyboard and mouse events as they happen and turns them into one InputSnapshot per tick.
+ * Any thread (usually the EDT) can post() events without locking; the game thread calls poll() once per tick, which
+ * is the only point where input crosses between the threads.
+ *
+ * When nothing has happened since the last poll and nothing happened before it either, the previous snapshot is
+ * returned again, so a tick with idle input allocates nothing.
+ */
+class InputQueue {
+    // Instance variables
+    private final ConcurrentLinkedQueue<InputEvent> events = new ConcurrentLinkedQueue<>(); // Posted, not yet polled.
+    // The input state as of the last poll. Only used by the polling thread.
+    private final BitSet keysDown = new BitSet();
+    private boolean mouseDown;
+    private int mouseX, mouseY;
+    private InputSnapshot last = InputSnapshot.EMPTY; // What the last poll returned.
+    // Scratch space for the events of one poll, reused between polls.
+    private int[] pressed = new int[8];
+    private int[] clickX = new int[8], clickY = new int[8];
+    private long[] clickTime = new long[8];
+
+    /** Adds an event to the queue. Safe to call from any thread. */
+    public void post(InputEvent event) {
+        events.offer(event);
+    }
+
+    /** Takes every event posted since the last poll and returns a snapshot of the input at the end of them. Call
+     * this from one thread only, once per tick.
+     */
+    public InputSnapshot poll() {
+        if (events.isEmpty() && !last.hasEdges()) {
+            return last; // nothing changed
+        }
+        int pressedCount = 0;
+        int clickCount = 0;
+        InputEvent event;
+        while ((event = events.poll()) != null) {
+            switch (event.type) {
+                case InputEvent.KEY_PRESSED:
+                    if (event.keycode >= 0 && !keysDown.get(event.keycode)) { // not a key repeat
+                        keysDown.set(event.keycode);
+                        if (pressedCount == pressed.length) {
+                            pressed = Arrays.copyOf(pressed, pressedCount * 2);
+                        }
+                        pressed[pressedCount++] = event.keycode;
+                    }
+                    break;
+                case InputEvent.KEY_RELEASED:
+                    if (event.keycode >= 0) {
+                        keysDown.clear(event.keycode);
+                    }
+                    break;
+                case InputEvent.MOUSE_PRESSED:
+                    mouseDown = true;
+                    if (clickCount == clickX.length) {
+                        clickX = Arrays.copyOf(clickX, clickCount * 2);
+                        clickY = Arrays.copyOf(clickY, clickCount * 2);
+                        clickTime = Arrays.copyOf(clickTime, clickCount * 2);
+                    }
+                    clickX[clickCount] = event.x;
+                    clickY[clickCount] = event.y;
+                    clickTime[clickCount] = event.time;
+                    clickCount++;
+                    break;
+                case InputEvent.MOUSE_RELEASED:
+                    mouseDown = false;
+                    break;
+                default: // MOUSE_DRAGGED
+                    break;
+            }
+            if (event.type >= InputEvent.MOUSE_PRESSED) {
+                mouseX = event.x;
+                mouseY = event.y;
+            }
+        }
+        last = new InputSnapshot(keysDown.stream().toArray(), Arrays.copyOf(pressed, pressedCount), mouseDown,
+                mouseX, mouseY, Arrays.copyOf(clickX, clickCount), Arrays.copyOf(clickY, clickCount),
+                Arrays.copyOf(clickTime, clickCount));
+        return last;
+    }
+}
@@ -0,0 +1,140 @@
+package game;
+
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/** An InputRecorder passes the input of another InputSource through to the game while writing it to a file, so the
+ * session can be played again exactly with an InputReplay and a game constructed with the same seed.
+ *
+ * The file starts with a header: the int MAGIC, the short VERSION and the game's long seed. Then there is one
+ * record per tick: an int whose low 16 bits say which of the KEYS were held down at the end of the tick and whose
+ * high 16 bits say which went down during it, a byte that is 1 if the mouse button was held down, the mouse's x and
+ * y as shorts, the number of clicks as a short, then each click's x and y as shorts. Only the keys the game uses are
+ * recorded, and when clicks happened within the tick is not.
+ *
+ * Records are gathered in a buffer and written through a FileChannel about once a second, so recording costs
+ * almost nothing per tick and at most the last second is lost if the program is killed. Call close() at the end.
+ */
+class InputRecorder implements InputSource {
+    /** The first four bytes of a recording: "HIVE" in ASCII. */
+    static final int MAGIC = 0x48495645;
+
+    /** The version of the file format described above. */
+    static final short VERSION = 1;
+
+    /** The key codes recorded, in the order of their bits in each record. At most 16. */
+    static final int[] KEYS = {
+            KeyEvent.VK_UP, KeyEvent.VK_W, KeyEvent.VK_DOWN, KeyEvent.VK_S,
+            KeyEvent.VK_LEFT, KeyEvent.VK_A, KeyEvent.VK_RIGHT, KeyEvent.VK_D,
+            KeyEvent.VK_SPACE, KeyEvent.VK_R
+    };
+
+    /** The most clicks recorded for one tick; any more in the same tick are dropped. */
+    static final int MAX_CLICKS = 1024;
+
+    private static final int FLUSH_TICKS = 20; // Write the buffer out about once a second.
+    private static final int BUFFER_SIZE = 1 << 16; // Enough for any record, even with MAX_CLICKS clicks.
+
+    // Instance variables
+    private final InputSource source; // Where the input really comes from.
+    private FileChannel channel; // The file being written, or null once closed.
+    private final ByteBuffer buffer; // Records that haven't been written to the file yet.
+    private int ticks; // The number of ticks recorded.
+
+    /** Creates (or replaces) the given file and starts recording the input from source for a game with the given
+     * seed.
+     */
+    public InputRecorder(Path file, long seed, InputSource source) throws IOException {
+        this.source = source;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putLong(seed);
+    }
+
+    /** Returns the next snapshot from the source, after recording it. */
+    public InputSnapshot pollInput() {
+        InputSnapshot input = source.pollInput();
+        if (channel != null) {
+            record(input);
+            ticks++;
+            if (ticks % FLUSH_TICKS == 0) {
+                flush();
+            }
+        }
+        return input;
+    }
+
+    /** Getter function for the number of ticks recorded so far. */
+    public int getTicks() {
+        return ticks;
+    }
+
+    /** Writes everything recorded to the file and closes it. Later ticks are passed through but not recorded. */
+    public void close() {
+        if (channel == null) {
+            return;
+        }
+        flush();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        channel = null;
+    }
+
+    private void record(InputSnapshot input) {
+        int clicks = Math.min(input.getClickCount(), MAX_CLICKS);
+        if (buffer.remaining() < 11 + 4 * clicks) {
+            flush();
+        }
+        int down = 0, pressed = 0;
+        for (int k = 0; k < KEYS.length; k++) {
+            if (input.isKeyDown(KEYS[k])) {
+                down |= 1 << k;
+            }
+            if (input.wasKeyPressed(KEYS[k])) {
+                pressed |= 1 << k;
+            }
+        }
+        buffer.putInt(pressed << 16 | down);
+        buffer.put((byte) (input.isMouseDown() ? 1 : 0));
+        buffer.putShort(toShort(input.getMouseX()));
+        buffer.putShort(toShort(input.getMouseY()));
+        buffer.putShort((short) clicks);
+        for (int i = 0; i < clicks; i++) {
+            buffer.putShort(toShort(input.getClickX(i)));
+            buffer.putShort(toShort(input.getClickY(i)));
+        }
+    }
+
+    /** Writes the buffer to the file. If that fails, recording stops but the game goes on. */
+    private void flush() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+            channel = null;
+        }
+        buffer.clear();
+    }
+
+    /** Clamps a coordinate to fit in a short; the mouse can only be dragged so far off the canvas. */
+    private static short toShort(int value) {
+        return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, value));
+    }
+}
@@ -0,0 +1,113 @@
+package game;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/** An InputReplay plays back a file written by an InputRecorder, handing the game the recorded input one tick at a
+ * time instead of reading the keyboard and mouse. The file is memory-mapped, so ticks are read straight out of the
+ * page cache with no copying or system calls, and a replay on a HeadlessCanvas runs as fast as the game can tick.
+ *
+ * Construct the game with getSeed() so it makes the same random choices as the recorded one. Once the recording
+ * runs out, every tick gets InputSnapshot.EMPTY, as if the player let go of everything.
+ */
+class InputReplay implements InputSource {
+    private static final int[] NO_KEYS = new int[0];
+    private static final long[] NO_TIMES = new long[0];
+
+    // Instance variables
+    private final MappedByteBuffer buffer; // The whole recording, positioned at the next tick's record.
+    private final long seed; // The seed of the recorded game.
+    private int ticks; // The number of ticks played back so far.
+    private InputSnapshot last = InputSnapshot.EMPTY; // What the last tick got.
+    private int lastKeys, lastMouseX, lastMouseY; // The record the last snapshot was made from.
+    private boolean lastMouseDown;
+
+    /** Opens a recording made by an InputRecorder. Throws an IOException if it can't be read or isn't a recording. */
+    public InputReplay(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // stays mapped after closing
+        }
+        if (buffer.remaining() < 14 || buffer.getInt() != InputRecorder.MAGIC) {
+            throw new IOException(file + " is not an input recording");
+        }
+        short version = buffer.getShort();
+        if (version != InputRecorder.VERSION) {
+            throw new IOException(file + " is a version " + version + " recording; only version "
+                    + InputRecorder.VERSION + " can be played back");
+        }
+        seed = buffer.getLong();
+    }
+
+    /** Getter function for the seed of the recorded game. */
+    public long getSeed() {
+        return seed;
+    }
+
+    /** Getter function for the number of ticks played back so far. */
+    public int getTicks() {
+        return ticks;
+    }
+
+    /** Returns true once every recorded tick has been played back. */
+    public boolean isFinished() {
+        return !hasRecord();
+    }
+
+    /** Returns the input for the next recorded tick, or InputSnapshot.EMPTY once the recording runs out. */
+    public InputSnapshot pollInput() {
+        if (!hasRecord()) {
+            return InputSnapshot.EMPTY;
+        }
+        ticks++;
+        int keys = buffer.getInt();
+        boolean mouseDown = buffer.get() != 0;
+        int mouseX = buffer.getShort();
+        int mouseY = buffer.getShort();
+        int clicks = buffer.getShort();
+        if (clicks == 0 && keys >>> 16 == 0 && !last.hasEdges() && keys == lastKeys && mouseDown == lastMouseDown
+                && mouseX == lastMouseX && mouseY == lastMouseY) {
+            return last; // the same keys and button held as last tick, and nothing happened in either
+        }
+        int[] clickX = new int[clicks], clickY = new int[clicks];
+        for (int i = 0; i < clicks; i++) {
+            clickX[i] = buffer.getShort();
+            clickY[i] = buffer.getShort();
+        }
+        lastKeys = keys;
+        lastMouseDown = mouseDown;
+        lastMouseX = mouseX;
+        lastMouseY = mouseY;
+        last = new InputSnapshot(toKeys(keys & 0xFFFF), toKeys(keys >>> 16), mouseDown, mouseX, mouseY,
+                clickX, clickY, clicks == 0 ? NO_TIMES : new long[clicks]);
+        return last;
+    }
+
+    /** Returns true if a whole record is left to play back. A record cut short by the recording program being
+     * killed counts as the end.
+     */
+    private boolean hasRecord() {
+        if (buffer.remaining() < 11) {
+            return false;
+        }
+        int clicks = buffer.getShort(buffer.position() + 9);
+        return clicks >= 0 && buffer.remaining() >= 11 + 4 * clicks;
+    }
+
+    /** Returns the key codes of the bits set in a mask of InputRecorder.KEYS. */
+    private static int[] toKeys(int mask) {
+        if (mask == 0) {
+            return NO_KEYS;
+        }
+        int[] keys = new int[Integer.bitCount(mask)];
+        int n = 0;
+        for (int k = 0; k < InputRecorder.KEYS.length; k++) {
+            if ((mask & 1 << k) != 0) {
+                keys[n++] = InputRecorder.KEYS[k];
+            }
+        }
+        return keys;
+    }
+}
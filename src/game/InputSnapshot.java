@@ -0,0 +1,94 @@
+package game;
+
+/** An InputSnapshot is everything the player did with the keyboard and mouse during one game tick: which keys and
+ * mouse button are held at the end of it, which keys went down during it, even if they were let go again before the
+ * tick ended, and every mouse click with where and when it happened. Snapshots never change once made, so a tick
+ * reads one consistent view of the input however long it takes, and snapshots can be stored and replayed.
+ *
+ * Get one per tick from GameCanvas.pollInput().
+ */
+public final class InputSnapshot {
+    /** A snapshot of no keys or buttons held and nothing happening. */
+    public static final InputSnapshot EMPTY = new InputSnapshot(new int[0], new int[0], false, 0, 0,
+            new int[0], new int[0], new long[0]);
+
+    // Instance variables
+    private final int[] keysDown; // Key codes held down at the end of the tick.
+    private final int[] keysPressed; // Key codes that went down during the tick.
+    private final boolean mouseDown; // Whether a mouse button is held down at the end of the tick.
+    private final int mouseX, mouseY; // Where the mouse was last pressed, dragged or released.
+    private final int[] clickX, clickY; // Where each mouse button press during the tick happened.
+    private final long[] clickTime; // When each press happened, on the canvas's clock.
+
+    /** Constructs a snapshot. The arrays become part of the snapshot and must not be changed afterwards. */
+    InputSnapshot(int[] keysDown, int[] keysPressed, boolean mouseDown, int mouseX, int mouseY,
+                  int[] clickX, int[] clickY, long[] clickTime) {
+        this.keysDown = keysDown;
+        this.keysPressed = keysPressed;
+        this.mouseDown = mouseDown;
+        this.mouseX = mouseX;
+        this.mouseY = mouseY;
+        this.clickX = clickX;
+        this.clickY = clickY;
+        this.clickTime = clickTime;
+    }
+
+    /** Returns true if the key with the given key code (see KeyEvent) is held down at the end of the tick. */
+    public boolean isKeyDown(int keycode) {
+        return contains(keysDown, keycode);
+    }
+
+    /** Returns true if the key with the given key code went down during the tick. */
+    public boolean wasKeyPressed(int keycode) {
+        return contains(keysPressed, keycode);
+    }
+
+    /** Returns true if a mouse button is held down at the end of the tick. */
+    public boolean isMouseDown() {
+        return mouseDown;
+    }
+
+    /** Getter function for the x-coordinate the mouse was last pressed, dragged or released at. */
+    public int getMouseX() {
+        return mouseX;
+    }
+
+    /** Getter function for the y-coordinate the mouse was last pressed, dragged or released at. */
+    public int getMouseY() {
+        return mouseY;
+    }
+
+    /** Returns the number of mouse clicks (button presses) during the tick. */
+    public int getClickCount() {
+        return clickX.length;
+    }
+
+    /** Returns the x-coordinate of the i-th click during the tick. */
+    public int getClickX(int i) {
+        return clickX[i];
+    }
+
+    /** Returns the y-coordinate of the i-th click during the tick. */
+    public int getClickY(int i) {
+        return clickY[i];
+    }
+
+    /** Returns when the i-th click during the tick happened, on the canvas's clock. */
+    public long getClickTime(int i) {
+        return clickTime[i];
+    }
+
+    /** Returns true if anything happened during the tick, rather than keys and buttons just being held. */
+    boolean hasEdges() {
+        return keysPressed.length > 0 || clickX.length > 0;
+    }
+
+    private static boolean contains(int[] keys, int keycode) {
+        for (int key : keys) {
+            if (key == keycode) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
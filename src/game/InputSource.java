@@ -0,0 +1,9 @@
+package game;
+
+/** An InputSource hands the game everything the player did during each tick. A canvas is one; an InputRecorder
+ * passes another source's input through while writing it to a file, and an InputReplay reads it back.
+ */
+public interface InputSource {
+    /** Returns a snapshot of the input for one tick. Called once per tick, from the thread that runs the game. */
+    InputSnapshot pollInput();
+}
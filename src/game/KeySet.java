@@ -0,0 +1,50 @@
+package game;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/** A KeySet records which keys are held down, as one bit per key code in an AtomicLongArray. The EDT sets and
+ * clears bits as keys go down and up, and the game thread can check a key at any time without taking a lock or
+ * allocating anything: a check is a single volatile read. Key codes outside 0 to MAX_KEY_CODE are ignored.
+ */
+class KeySet {
+    /** The largest key code tracked. Every KeyEvent.VK_ constant is below this. */
+    public static final int MAX_KEY_CODE = 0xFFFF;
+
+    // Instance variables
+    private final AtomicLongArray words = new AtomicLongArray((MAX_KEY_CODE >> 6) + 1); // 64 keys per word.
+
+    /** Marks a key as held down. */
+    public void add(int keycode) {
+        if (keycode < 0 || keycode > MAX_KEY_CODE) return;
+        int word = keycode >> 6;
+        long bit = 1L << keycode;
+        long old;
+        do {
+            old = words.get(word);
+        } while ((old & bit) == 0 && !words.compareAndSet(word, old, old | bit));
+    }
+
+    /** Marks a key as no longer held down. */
+    public void remove(int keycode) {
+        if (keycode < 0 || keycode > MAX_KEY_CODE) return;
+        int word = keycode >> 6;
+        long bit = 1L << keycode;
+        long old;
+        do {
+            old = words.get(word);
+        } while ((old & bit) != 0 && !words.compareAndSet(word, old, old & ~bit));
+    }
+
+    /** Returns true if the key is held down. */
+    public boolean contains(int keycode) {
+        if (keycode < 0 || keycode > MAX_KEY_CODE) return false;
+        return (words.get(keycode >> 6) & (1L << keycode)) != 0;
+    }
+
+    /** Marks every key as released. */
+    public void clear() {
+        for (int i = 0; i < words.length(); i++) {
+            words.set(i, 0);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package game;
+
+import java.awt.event.KeyEvent;
+
+/** A KeyboardMouseController plays the game the way the player says: the arrow keys or WASD move the bee, SPACE
+ * fires, R reloads and clicking fires towards the mouse. Every game starts with one.
+ */
+class KeyboardMouseController implements PlayerController {
+
+    public void takeTurn(Game game, InputSnapshot input) {
+        Bee mainBee = game.getMainBee();
+        handleKeyboard(mainBee, input);
+        handleMouse(mainBee, input);
+    }
+
+    /** Handles all keyboard inputs from player during the tick. */
+    private void handleKeyboard(Bee mainBee, InputSnapshot input) {
+        if (isKeyActive(input, KeyEvent.VK_UP) || isKeyActive(input, KeyEvent.VK_W)) {
+            mainBee.moveUp();
+        }
+        if (isKeyActive(input, KeyEvent.VK_DOWN) || isKeyActive(input, KeyEvent.VK_S)) {
+            mainBee.moveDown();
+        }
+        if (isKeyActive(input, KeyEvent.VK_LEFT) || isKeyActive(input, KeyEvent.VK_A)) {
+            mainBee.moveLeft();
+        }
+        if (isKeyActive(input, KeyEvent.VK_RIGHT) || isKeyActive(input, KeyEvent.VK_D)) {
+            mainBee.moveRight();
+        }
+        if (mainBee.getReloadedStatus()) { // If the gun is reloaded, you can fire.
+            if (isKeyActive(input, KeyEvent.VK_SPACE)) {
+                mainBee.fire();
+            }
+        }
+        if (isKeyActive(input, KeyEvent.VK_R)) {
+            if (mainBee.canReload()) {
+                mainBee.reload();
+            }
+        }
+    }
+
+    /** Returns true if a key is held down, or was tapped at any point during the tick, so quick taps aren't lost. */
+    private static boolean isKeyActive(InputSnapshot input, int keycode) {
+        return input.isKeyDown(keycode) || input.wasKeyPressed(keycode);
+    }
+
+    /** Handles all the mouse clicking of the player. Every click during the tick fires a bullet towards where it was
+     * clicked. While the mouse is held down without a new click, the bee keeps firing towards wherever the mouse has
+     * been dragged to.
+     */
+    private void handleMouse(Bee mainBee, InputSnapshot input) {
+        int clicks = input.getClickCount();
+        for (int i = 0; i < clicks; i++) {
+            mainBee.fireWithMouse(input.getClickX(i), input.getClickY(i));
+        }
+        if (clicks == 0 && input.isMouseDown()) {
+            mainBee.fireWithMouse(input.getMouseX(), input.getMouseY());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package game;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** An LruCache is a map that holds at most a fixed number of entries. Entries are kept in least to most recently
+ * used order, get() counting as a use, and once a put() takes the map over its capacity, the least recently used
+ * entry is evicted. ImageCache, SpriteCache and TextCache keep their entries in one. Like LinkedHashMap it is not
+ * thread safe; those caches synchronize on themselves around it.
+ */
+class LruCache<K, V> extends LinkedHashMap<K, V> {
+    private static final long serialVersionUID = 1L;
+
+    // Instance variables
+    private final int capacity; // The maximum number of entries kept.
+
+    /** Constructs a new, empty cache holding at most the given number of entries. */
+    public LruCache(int capacity) {
+        super(16, 0.75f, true); // access order, so iteration goes from least to most recently used
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        this.capacity = capacity;
+    }
+
+    /** Getter function for the maximum number of entries the cache will hold. */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+        return size() > capacity;
+    }
+}
@@ -0,0 +1,62 @@
+package game;
+
+import java.util.ArrayDeque;
+import java.util.function.Supplier;
+
+/** An ObjectPool keeps game objects that are no longer in play so they can be reused instead of allocating new ones.
+ * acquire() hands out a pooled object, reset to how a new one starts, or makes a new one if the pool is empty, and
+ * release() gives an object back once the game is done with it.
+ *
+ * The pool is bounded: objects released while it already holds capacity of them are left for the garbage collector,
+ * so a burst of objects doesn't stay in memory forever. Not thread-safe; use it from the simulation thread only.
+ */
+class ObjectPool<T extends GameObject> {
+    // Instance variables
+    private final ArrayDeque<T> free; // Objects waiting to be reused.
+    private final int capacity; // The most objects the pool will hold on to.
+    private final Supplier<T> factory; // Makes a new object when the pool is empty.
+    private int created; // How many objects the factory has made.
+
+    /** Constructs an empty pool that holds at most capacity objects and makes new ones with the given factory. */
+    public ObjectPool(int capacity, Supplier<T> factory) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative: " + capacity);
+        }
+        this.capacity = capacity;
+        this.factory = factory;
+        free = new ArrayDeque<>(Math.max(1, capacity));
+    }
+
+    /** Returns an object ready to be put in play: a reset pooled one if there is one, otherwise a new one. */
+    public T acquire() {
+        T object = free.pollLast();
+        if (object == null) {
+            created++;
+            return factory.get();
+        }
+        object.reset();
+        return object;
+    }
+
+    /** Gives an object that is no longer in play back to the pool. It must not be used again until acquired. */
+    public void release(T object) {
+        if (free.size() < capacity) {
+            free.addLast(object);
+        }
+    }
+
+    /** Getter function for the number of objects waiting in the pool. */
+    public int size() {
+        return free.size();
+    }
+
+    /** Getter function for the most objects the pool will hold on to. */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /** Getter function for the number of objects the pool has had to make, rather than reuse. */
+    public int getCreated() {
+        return created;
+    }
+}
@@ -0,0 +1,10 @@
+package game;
+
+/** A PlayerController decides what the main bee does. The game asks it once per tick, after everything has moved
+ * and spawned, with the input for that tick. KeyboardMouseController plays the way the player presses keys and
+ * clicks; AutopilotController plays by itself and ignores the input.
+ */
+interface PlayerController {
+    /** Moves the game's main bee, fires and reloads for one tick. */
+    void takeTurn(Game game, InputSnapshot input);
+}
@@ -14,6 +14,12 @@ public class RedWasp extends Enemy {
         points = 100;
     }
 
+    /** Resets the red wasp to a new spawn location with its starting 30 health. */
+    public void reset() {
+        super.reset();
+        health = 30;
+    }
+
     /** Getter function for the dph (damage per hit). */
     public int getDph() {
         return dph;
@@ -0,0 +1,20 @@
+package game;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** A Java Flight Recorder event for drawing a frame of the game, or the HUD within it, on the thread that draws. */
+@Name("game.RenderPhase")
+@Label("Render Phase")
+@Category("Hive Defender")
+@Description("Time spent drawing one frame, or one part of it")
+class RenderPhaseEvent extends Event {
+    @Label("Phase")
+    String phase; // Which part of drawing, named after the method that does it.
+
+    @Label("Sprites")
+    int sprites; // The number of sprites in the snapshot being drawn.
+}
@@ -0,0 +1,29 @@
+package game;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/** Plays a recorded game again on a HeadlessCanvas, without drawing and without waiting between ticks, so a
+ * session recorded with RunDefaultGame --record can be re-run at full speed, for example under a profiler.
+ *
+ * Usage: java -Djava.awt.headless=true game.ReplayGame recording
+ */
+public class ReplayGame {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: java -Djava.awt.headless=true game.ReplayGame recording");
+            System.exit(2);
+        }
+        InputReplay replay = new InputReplay(Paths.get(args[0]));
+        Game game = new Game(new HeadlessCanvas(1280, 720, false), replay.getSeed());
+        game.replayInput(replay);
+
+        long start = System.nanoTime();
+        game.runGame();
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("Seed %d: replayed %d ticks%s in %.1f ms, %d points%n", replay.getSeed(), replay.getTicks(),
+                replay.isFinished() ? "" : " (the game ended before the recording did)", elapsed / 1e6,
+                game.getPoints());
+    }
+}
@@ -1,11 +1,51 @@
 package game;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+
 public class RunDefaultGame {
+    private static final String USAGE = "Usage: java game.RunDefaultGame [seed] [--record file]";
 
-    /** This is the main testing function for the game. It will instantiate a new game and run it. */
-    public static void main(String[] args)
+    /** This is the main testing function for the game. It will instantiate a new game and run it. Give a seed as an
+     * argument to play the same game as a previous run; the seed of every game is printed when it starts. Give
+     * --record and a file name to record the game's input, which ReplayGame can play back.
+     *
+     * Usage: java game.RunDefaultGame [seed] [--record file]
+     */
+    public static void main(String[] args) throws IOException
     {
-        Game theGame = new Game(1280, 720);
+        long seed = GameRandom.newSeed();
+        String recording = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--record")) {
+                if (i + 1 == args.length) {
+                    usage("--record needs a file name");
+                }
+                recording = args[++i];
+            }
+            else if (args[i].startsWith("--")) {
+                usage("unknown option " + args[i]);
+            }
+            else {
+                try {
+                    seed = Long.parseLong(args[i]);
+                } catch (NumberFormatException e) {
+                    usage("the seed must be a whole number, not " + args[i]);
+                }
+            }
+        }
+        System.out.println("Seed: " + seed);
+        Game theGame = new Game(1280, 720, seed);
+        if (recording != null) {
+            theGame.recordInput(Paths.get(recording));
+        }
         theGame.runGame();
     }
-}
\ No newline at end of file
+
+    /** Prints what was wrong with the arguments and how to give them, and exits. */
+    private static void usage(String problem) {
+        System.err.println(problem);
+        System.err.println(USAGE);
+        System.exit(2);
+    }
+}
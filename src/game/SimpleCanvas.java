@@ -6,26 +6,40 @@ import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.image.BufferStrategy;
 import java.awt.image.BufferedImage;
 import java.lang.reflect.InvocationTargetException;
-import java.net.MalformedURLException;
-import java.net.URL;
 import java.util.LinkedList;
 import java.util.NoSuchElementException;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.lang.String;
 
 /**
  * A SimpleCanvas represents a window on the screen that can be drawn on.
+ *
+ * Where there is no screen (java.awt.headless is true), no window is made: frames are still recorded and replayed
+ * onto the offscreen image on the thread that calls update(), as with active rendering, but never shown. That is
+ * how the benchmarks time the canvas's drawing on a machine without a display.
  */
-public class SimpleCanvas {
+public class SimpleCanvas implements GameCanvas {
+    /** A render scale that matches the screen: 2 on a HiDPI screen, otherwise 1. */
+    public static final int SCALE_AUTO = 0;
+
     private JFrame frame;
-    private Graphics2D onscreenGraphics, offscreenGraphics;
+    private Component surface; // The component the canvas is shown in, and that receives mouse input.
+    private Graphics2D onscreenGraphics;
     private BufferedImage onscreenImage, offscreenImage;
+    private CanvasRenderer renderer; // Draws recorded commands on offscreenImage.
+    private final boolean activeRendering; // True to present frames through a BufferStrategy instead of Swing.
+    private final boolean headless; // True if there is no screen, so frames are drawn but never shown.
+    private final int renderScale; // How many buffer pixels across each canvas pixel is drawn with, 1 or 2.
+    private final boolean qualityHints; // True to antialias and smooth, false to draw as fast as possible.
+    private final RenderingHints presentHints; // How to scale frames to the screen with active rendering.
+    private volatile BufferStrategy bufferStrategy; // Only used when activeRendering is true.
     //private Color penColor;
     private int height, width;
-    private Color bgColor = Color.WHITE;
     private int lastMouseClickX = 0, lastMouseClickY = 0;
     private boolean isMousePressed = false;
     private double mouseX = 0;
@@ -38,8 +52,42 @@ public class SimpleCanvas {
     // queue of typed key characters
     private LinkedList<Character> keysTyped;
 
-    // set of key codes currently pressed down
-    private Set<Integer> keysDown;
+    // key codes currently pressed down; read by the game thread without locking
+    private final KeySet keysDown = new KeySet();
+
+    // every key and mouse event, for pollInput()
+    private final InputQueue input = new InputQueue();
+
+    // Drawing commands are recorded into a buffer and handed to the EDT a whole frame at a time by update().
+    // A small set of buffers is recycled between the game thread and the EDT; if the EDT falls more than a
+    // couple of frames behind, update() waits for it to finish one. With active rendering, update() replays
+    // and presents the frame itself, on the calling thread, and the EDT is not involved.
+    private static final int FRAMES_IN_FLIGHT = 3;
+    private final Object commandLock = new Object();
+    private final BlockingQueue<RecordedFrame> freeFrames = new ArrayBlockingQueue<>(FRAMES_IN_FLIGHT);
+    private RecordedFrame recording; // The frame currently being recorded. Guarded by commandLock.
+    private final Object framesReplayed = new Object(); // Notified whenever the EDT finishes replaying a frame.
+    // Frames posted to the EDT that haven't been replayed yet, oldest first. Each posted event replays the oldest,
+    // so the EDT can also replay them all early, in order, when it needs to read the canvas.
+    private final ConcurrentLinkedQueue<RecordedFrame> postedFrames = new ConcurrentLinkedQueue<>();
+    private final Runnable replayPostedFrame = new Runnable() {
+        @Override
+        public void run() {
+            RecordedFrame posted = postedFrames.poll();
+            if (posted != null) { // otherwise the EDT already replayed it in finishDrawing()
+                posted.run();
+            }
+        }
+    };
+
+    // Dirty rectangle mode. When a frame starts with the same drawBackground() image as the last one, only the
+    // areas drawn on in this frame or the last are restored from the background, redrawn and presented. The
+    // regions are only used by the thread that replays frames.
+    private volatile boolean dirtyRectangles; // Whether dirty rectangle mode is on.
+    private DirtyRegion lastFrameRegion, thisFrameRegion; // Where the last and the current frame drew.
+    private final DirtyRegion redrawRegion; // Everything that has to be redrawn for the current frame.
+    private Image lastBackground; // The background the last frame was drawn on, or null.
+    private boolean presentAll; // True if a frame was drawn but not presented, so the next present must show it all.
 
     public boolean isMousePressed() {
         synchronized (mouseLock) {
@@ -70,41 +118,91 @@ public class SimpleCanvas {
      * Creates a new SimpleCanvas of the specified width and height, with the specified title.
      */
     public SimpleCanvas(int width, int height, String title) {
+        this(width, height, title, false);
+    }
+
+    /**
+     * Creates a new SimpleCanvas of the specified width and height, with the specified title.  If activeRendering
+     * is true, frames are drawn and shown by update() directly, through an AWT Canvas with a BufferStrategy,
+     * instead of being handed to Swing to repaint.  Use this when the program calls update() once per frame
+     * in a loop, as games do.
+     */
+    public SimpleCanvas(int width, int height, String title, boolean activeRendering) {
+        this(width, height, title, activeRendering, SCALE_AUTO, true, true);
+    }
+
+    /**
+     * Creates a new SimpleCanvas of the specified width and height, with the specified title, drawn at the given
+     * render scale: 1, 2 (for HiDPI screens) or SCALE_AUTO to match the screen.  If opaque is true, the canvas is
+     * drawn on buffers with no alpha channel, which are smaller and faster to copy; colors drawn on the canvas are
+     * then always opaque.  If qualityHints is false, shapes and text aren't antialiased and scaling isn't smoothed,
+     * which is faster.  See the constructor above for activeRendering.
+     */
+    public SimpleCanvas(int width, int height, String title, boolean activeRendering, int renderScale,
+                        boolean opaque, boolean qualityHints) {
+        if (renderScale != SCALE_AUTO && renderScale != 1 && renderScale != 2) {
+            throw new IllegalArgumentException("render scale must be 1, 2 or SCALE_AUTO: " + renderScale);
+        }
         this.height = height;
         this.width = width;
+        headless = GraphicsEnvironment.isHeadless();
+        this.activeRendering = activeRendering || headless; // without a window, nothing else can replay frames
+        this.renderScale = renderScale == SCALE_AUTO ? detectRenderScale() : renderScale;
+        this.qualityHints = qualityHints;
+        presentHints = CanvasRenderer.createHints(qualityHints);
+        int imageType = opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
         //penColor = Color.BLACK;
+        recording = new RecordedFrame();
+        for (int i = 1; i < FRAMES_IN_FLIGHT; i++) {
+            freeFrames.add(new RecordedFrame());
+        }
+        offscreenImage = new BufferedImage(this.renderScale * width, this.renderScale * height, imageType);
+        renderer = new CanvasRenderer(offscreenImage, width, height, qualityHints); // also clears the screen
+        lastFrameRegion = new DirtyRegion(width, height);
+        thisFrameRegion = new DirtyRegion(width, height);
+        redrawRegion = new DirtyRegion(width, height);
+
+        // initialize keystroke buffers
+        keysTyped = new LinkedList<Character>();
+        if (headless) {
+            return; // no window to show frames in or take input from
+        }
 
         SwingUtilities.invokeLater(new Runnable() {
             @Override
             public void run() {
                 frame = new JFrame(title);
                 frame.setVisible(false);
-                onscreenImage = new BufferedImage(2 * width, 2 * height, BufferedImage.TYPE_INT_ARGB);
-                offscreenImage = new BufferedImage(2 * width, 2 * height, BufferedImage.TYPE_INT_ARGB);
-                onscreenGraphics = onscreenImage.createGraphics();
-                offscreenGraphics = offscreenImage.createGraphics();
-                onscreenGraphics.scale(2, 2);
-
-                // initialize keystroke buffers
-                keysTyped = new LinkedList<Character>();
-                keysDown = new TreeSet<Integer>();
-
-                // add antialiasing
-                RenderingHints hints = new RenderingHints(RenderingHints.KEY_ANTIALIASING,
-                        RenderingHints.VALUE_ANTIALIAS_ON);
-                hints.put(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-                offscreenGraphics.addRenderingHints(hints);
-
-                // clear screen
-                offscreenGraphics.setColor(bgColor);
-                offscreenGraphics.fillRect(0, 0, width, height);
-                //System.out.println("painted BG");
-                offscreenGraphics.setColor(Color.BLACK);
 
                 // frame stuff
-                RetinaImageIcon icon = new RetinaImageIcon(onscreenImage);
-                JLabel draw = new JLabel(icon);
-                draw.addMouseListener(new MouseAdapter() {
+                if (activeRendering) {
+                    Canvas draw = new Canvas() {
+                        @Override
+                        public void paint(Graphics g) {
+                            // the window was exposed; show the last finished frame again
+                            synchronized (commandLock) {
+                                presentActive();
+                            }
+                        }
+
+                        @Override
+                        public void update(Graphics g) {
+                            paint(g); // don't clear first
+                        }
+                    };
+                    draw.setPreferredSize(new Dimension(width, height));
+                    draw.setBackground(Color.WHITE);
+                    surface = draw;
+                    frame.add(draw);
+                }
+                else {
+                    onscreenImage = new BufferedImage(offscreenImage.getWidth(), offscreenImage.getHeight(), imageType);
+                    onscreenGraphics = onscreenImage.createGraphics(); // a plain copy of the offscreen image
+                    RetinaImageIcon icon = new RetinaImageIcon(onscreenImage, SimpleCanvas.this.renderScale, qualityHints);
+                    surface = new JLabel(icon);
+                    frame.setContentPane((JLabel) surface);
+                }
+                MouseAdapter mouse = new MouseAdapter() {
                     @Override
                     public void mouseReleased(MouseEvent e) {
                         synchronized (mouseLock) {
@@ -112,25 +210,31 @@ public class SimpleCanvas {
                             lastMouseClickY = e.getY();
                             isMousePressed = false;
                         }
+                        input.post(new InputEvent(InputEvent.MOUSE_RELEASED, 0, e.getX(), e.getY(), System.nanoTime()));
                     }
 
+                    @Override
                     public void mousePressed(MouseEvent e) {
                         synchronized (mouseLock) {
                             lastMouseClickX = e.getX();
                             lastMouseClickY = e.getY();
                             isMousePressed = true;
                         }
+                        input.post(new InputEvent(InputEvent.MOUSE_PRESSED, 0, e.getX(), e.getY(), System.nanoTime()));
                     }
 
+                    @Override
                     public void mouseDragged(MouseEvent e)  {
                         synchronized (mouseLock) {
                             lastMouseClickX = e.getX();
-                            lastMouseClickX = e.getY();
+                            lastMouseClickY = e.getY();
                         }
+                        input.post(new InputEvent(InputEvent.MOUSE_DRAGGED, 0, e.getX(), e.getY(), System.nanoTime()));
                     }
-                });
-                frame.setContentPane(draw);
-                frame.addKeyListener(new KeyAdapter() {
+                };
+                surface.addMouseListener(mouse);
+                surface.addMouseMotionListener(mouse); // drags are motion events, not plain mouse events
+                KeyAdapter keys = new KeyAdapter() {
                     @Override
                     public void keyTyped(KeyEvent e) {
                         synchronized (keyLock) {
@@ -140,22 +244,27 @@ public class SimpleCanvas {
 
                     @Override
                     public void keyPressed(KeyEvent e) {
-                        synchronized (keyLock) {
-                            keysDown.add(e.getKeyCode());
-                        }
+                        keysDown.add(e.getKeyCode());
+                        input.post(new InputEvent(InputEvent.KEY_PRESSED, e.getKeyCode(), 0, 0, System.nanoTime()));
                     }
 
                     @Override
                     public void keyReleased(KeyEvent e) {
-                        synchronized (keyLock) {
-                            keysDown.remove(e.getKeyCode());
-                        }
+                        keysDown.remove(e.getKeyCode());
+                        input.post(new InputEvent(InputEvent.KEY_RELEASED, e.getKeyCode(), 0, 0, System.nanoTime()));
                     }
-                });
+                };
+                frame.addKeyListener(keys);
+                surface.addKeyListener(keys); // an AWT Canvas takes the keyboard focus from the frame
                 frame.setFocusTraversalKeysEnabled(false);
+                surface.setFocusTraversalKeysEnabled(false);
                 frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
                 frame.setResizable(false);
                 frame.pack();
+                if (activeRendering) {
+                    ((Canvas) surface).createBufferStrategy(2); // needs the peer that pack() created
+                    bufferStrategy = ((Canvas) surface).getBufferStrategy();
+                }
                 //frame.repaint();
                 //System.out.println("done constructor");
             }
@@ -179,9 +288,15 @@ public class SimpleCanvas {
     }
 
     public boolean isKeyPressed(int keycode) {
-        synchronized (keyLock) {
-            return keysDown.contains(keycode);
-        }
+        return keysDown.contains(keycode);
+    }
+
+    /**
+     * Returns a snapshot of every key and mouse event since the last call, and of what is held down now.
+     * Events are queued by the EDT as they happen, so none are lost between calls.
+     */
+    public InputSnapshot pollInput() {
+        return input.poll();
     }
 
     private static class MouseWaiter extends MouseAdapter {
@@ -197,12 +312,15 @@ public class SimpleCanvas {
      * can be retrieved later.
      */
     public void waitForClick() {
+        if (headless) {
+            throw new HeadlessException("there is no window to click on");
+        }
         MouseWaiter mw = new MouseWaiter();
         try {
             SwingUtilities.invokeAndWait(new Runnable() {
                 @Override
                 public void run() {
-                    frame.getContentPane().addMouseListener(mw);
+                    surface.addMouseListener(mw);
                 }
             });
         } catch (InterruptedException | InvocationTargetException e) {
@@ -221,7 +339,7 @@ public class SimpleCanvas {
         SwingUtilities.invokeLater(new Runnable() {
             @Override
             public void run() {
-                frame.getContentPane().removeMouseListener(mw);
+                surface.removeMouseListener(mw);
             }
         });
     }
@@ -245,28 +363,18 @@ public class SimpleCanvas {
      * Clears the canvas with the current background color.
      */
     public void clear() {
-        SwingUtilities.invokeLater(new Runnable() {
-            @Override
-            public void run() {
-                Color saveColor = offscreenGraphics.getColor();
-                offscreenGraphics.setColor(bgColor);
-                offscreenGraphics.fillRect(0, 0, width, height);
-                offscreenGraphics.setColor(saveColor);
-            }
-        });
+        synchronized (commandLock) {
+            recording.commands.clear();
+        }
     }
 
     /**
      * Draws a circle on the canvas with the center at (centerX, centerY) and the specified radius.
      */
     public void drawCircle(int centerX, int centerY, int radius) {
-        SwingUtilities.invokeLater(new Runnable() {
-            @Override
-            public void run() {
-                offscreenGraphics.drawOval(centerX - radius, centerY - radius, radius * 2, radius * 2);
-                //frame.repaint();
-            }
-        });
+        synchronized (commandLock) {
+            recording.commands.drawOval(centerX - radius, centerY - radius, radius * 2, radius * 2);
+        }
     }
 
     /**
@@ -274,13 +382,9 @@ public class SimpleCanvas {
      * x and y directions.
      */
     public void drawOval(int centerX, int centerY, int radiusX, int radiusY) {
-        SwingUtilities.invokeLater(new Runnable() {
-            @Override
-            public void run() {
-                offscreenGraphics.drawOval(centerX - radiusX, centerY - radiusY, radiusX * 2, radiusY * 2);
-                //frame.repaint();
-            }
-        });
+        synchronized (commandLock) {
+            recording.commands.drawOval(centerX - radiusX, centerY - radiusY, radiusX * 2, radiusY * 2);
+        }
     }
 
     /**
@@ -288,33 +392,21 @@ public class SimpleCanvas {
      * width and height.
      */
     public void drawRectangle(int topLeftX, int topLeftY, int width, int height) {
-        SwingUtilities.invokeLater(new Runnable() {
-            @Override
-            public void run() {
-                offscreenGraphics.drawRect(topLeftX, topLeftY, width, height);
-                //frame.repaint();
-            }
-        });
+        synchronized (commandLock) {
+            recording.commands.drawRect(topLeftX, topLeftY, width, height);
+        }
     }
 
     public void drawPolygon(int[] xPoints, int[] yPoints) {
-        SwingUtilities.invokeLater(new Runnable() {
-            @Override
-            public void run() {
-                offscreenGraphics.drawPolygon(xPoints, yPoints, xPoints.length);
-                //frame.repaint();
-            }
-        });
+        synchronized (commandLock) {
+            recording.commands.drawPolygon(xPoints, yPoints);
+        }
     }
 
     public void drawFilledPolygon(int[] xPoints, int[] yPoints) {
-        SwingUtilities.invokeLater(new Runnable() {
-            @Override
-            public void run() {
-                offscreenGraphics.fillPolygon(xPoints, yPoints, xPoints.length);
-                //frame.repaint();
-            }
-        });
+        synchronized (commandLock) {
+            recording.commands.fillPolygon(xPoints, yPoints);
+        }
     }
 
     /**
@@ -322,14 +414,9 @@ public class SimpleCanvas {
      * with the current pen color.
      */
     public void drawFilledCircle(int centerX, int centerY, int radius) {
-        SwingUtilities.invokeLater(new Runnable() {
-            @Override
-            public void run() {
-                offscreenGraphics.fillOval(centerX - radius, centerY - radius, radius * 2, radius * 2);
-                //onscreenImage.
-                //frame.repaint();
-            }
-        });
+        synchronized (commandLock) {
+            recording.commands.fillOval(centerX - radius, centerY - radius, radius * 2, radius * 2);
+        }
     }
 
     /**
@@ -337,14 +424,9 @@ public class SimpleCanvas {
      * x and y directions, filled with the current pen color.
      */
     public void drawFilledOval(int centerX, int centerY, int radiusX, int radiusY) {
-        SwingUtilities.invokeLater(new Runnable() {
-            @Override
-            public void run() {
-                offscreenGraphics.fillOval(centerX - radiusX, centerY - radiusY, radiusX * 2, radiusY * 2);
-                //onscreenImage.
-                //frame.repaint();
-            }
-        });
+        synchronized (commandLock) {
+            recording.commands.fillOval(centerX - radiusX, centerY - radiusY, radiusX * 2, radiusY * 2);
+        }
     }
 
     /**
@@ -352,26 +434,18 @@ public class SimpleCanvas {
      * width and height, filled with the current pen color.
      */
     public void drawFilledRectangle(int topLeftX, int topLeftY, int width, int height) {
-        SwingUtilities.invokeLater(new Runnable() {
-            @Override
-            public void run() {
-                offscreenGraphics.fillRect(topLeftX, topLeftY, width, height);
-                //onscreenImage.
-                //frame.repaint();
-            }
-        });
+        synchronized (commandLock) {
+            recording.commands.fillRect(topLeftX, topLeftY, width, height);
+        }
     }
 
     /**
      * Draws a line on the canvas from (x1, y1) to (x2, y2).
      */
     public void drawLine(int x1, int y1, int x2, int y2) {
-        SwingUtilities.invokeLater(new Runnable() {
-            @Override
-            public void run() {
-                offscreenGraphics.drawLine(x1, y1, x2, y2);
-            }
-        });
+        synchronized (commandLock) {
+            recording.commands.drawLine(x1, y1, x2, y2);
+        }
     }
 
     /**
@@ -394,15 +468,9 @@ public class SimpleCanvas {
      * the point (x, y), and in the specified font size.
      */
     public void drawString(int x, int y, String text, int fontSize) {
-        SwingUtilities.invokeLater(new Runnable() {
-            @Override
-            public void run() {
-                Font currentFont = offscreenGraphics.getFont();
-                Font newFont = new Font(currentFont.getFontName(), currentFont.getStyle(), fontSize);
-                offscreenGraphics.setFont(newFont);
-                offscreenGraphics.drawString(text, x, y);
-            }
-        });
+        synchronized (commandLock) {
+            recording.commands.drawString(x, y, text, fontSize);
+        }
     }
 
     /**
@@ -410,33 +478,18 @@ public class SimpleCanvas {
      * and in the specified font size.
      */
     public void drawStringCentered(int x, int y, String text, int fontSize) {
-        SwingUtilities.invokeLater(new Runnable() {
-            @Override
-            public void run() {
-                Font currentFont = offscreenGraphics.getFont();
-                Font newFont = new Font(currentFont.getFontName(), currentFont.getStyle(), fontSize);
-                offscreenGraphics.setFont(newFont);
-
-                FontMetrics metrics = offscreenGraphics.getFontMetrics(newFont);
-                int stringWidth = metrics.stringWidth(text);
-                int stringHeight = metrics.getHeight();
-                //System.out.println(stringWidth + " " + stringHeight);
-
-                offscreenGraphics.drawString(text, x - stringWidth / 2, y + stringHeight / 2 - metrics.getAscent() / 2);
-            }
-        });
+        synchronized (commandLock) {
+            recording.commands.drawStringCentered(x, y, text, fontSize);
+        }
     }
 
     /**
      * Sets the thickness of the lines drawn for the borders of shapes.
      */
     public void setLineThickness(int size) {
-        SwingUtilities.invokeLater(new Runnable() {
-            @Override
-            public void run() {
-                offscreenGraphics.setStroke(new BasicStroke(size));
-            }
-        });
+        synchronized (commandLock) {
+            recording.commands.setLineThickness(size);
+        }
     }
 
     /**
@@ -450,43 +503,79 @@ public class SimpleCanvas {
         // int hs = image.getHeight();
         int ws = image.getWidth(null);
         int hs = image.getHeight(null);
-        int xs = x * 2;
-        int ys = y * 2;
         if (ws < 0 || hs < 0) throw new IllegalArgumentException("image " + filename + " is corrupt");
 
-        SwingUtilities.invokeLater(new Runnable() {
-            @Override
-            public void run() {
-                //offscreenGraphics.drawImage(image, (int) Math.round(xs - ws/2.0), (int) Math.round(ys - hs/2.0), null);
-                offscreenGraphics.drawImage(image, x, y, null);
-                //frame.repaint();
-            }
-        });
+        synchronized (commandLock) {
+            recording.commands.drawImage(image, x, y);
+        }
     }
 
     /**
-     * Draws the specified image on the canvas with the top left corner of the image at the point (x, y).
-     * The image string can be a URL or a filename, and must be either a .jpg or .png, though other times
-     * might work too.
+     * Draws the specified image on the canvas with the top left corner of the image at the point (x, y),
+     * stretched to the given width and height. The image string can be a URL or a filename, and must be
+     * either a .jpg or .png, though other times might work too. The scaled image is cached at the render scale,
+     * so drawing the same image at the same size again is a plain copy, and it stays sharp on a HiDPI screen.
      */
     public void drawImage(int x, int y, String filename, int width, int height) {
-        Image image = getImage(filename);
-        // int ws = image.getWidth();    // can call only if image is a BufferedImage
-        // int hs = image.getHeight();
-        int ws = image.getWidth(null);
-        int hs = image.getHeight(null);
-        int xs = x * 2;
-        int ys = y * 2;
-        if (ws < 0 || hs < 0) throw new IllegalArgumentException("image " + filename + " is corrupt");
+        if (width <= 0 || height <= 0) return; // nothing to draw
+        BufferedImage sprite = SpriteCache.shared().get(filename, width, height, renderScale);
 
-        SwingUtilities.invokeLater(new Runnable() {
-            @Override
-            public void run() {
-                //offscreenGraphics.drawImage(image, (int) Math.round(xs - ws/2.0), (int) Math.round(ys - hs/2.0), null);
-                offscreenGraphics.drawImage(image, x, y, width, height,null);
-                //frame.repaint();
-            }
-        });
+        synchronized (commandLock) {
+            recording.commands.drawImage(sprite, x, y, width, height);
+        }
+    }
+
+    /**
+     * Clears the canvas and draws the specified image stretched to fill it, as the background of a new frame.
+     * In dirty rectangle mode, the background is only redrawn where something was drawn over it.
+     */
+    public void drawBackground(String filename) {
+        BufferedImage background = SpriteCache.shared().get(filename, width, height, renderScale);
+
+        synchronized (commandLock) {
+            recording.commands.drawBackground(background);
+        }
+    }
+
+    /**
+     * Turns dirty rectangle mode on or off. In dirty rectangle mode, a frame that starts with drawBackground(),
+     * using the same image as the frame before it, only redraws the areas drawn on in either frame: they are
+     * restored from the background and drawn over again, and only they are copied to the screen. The rest of the
+     * frame is left as it was. Frames that draw text, lines or outlines, or don't start with the same background,
+     * are redrawn in full. With active rendering the whole frame is still shown, since the contents of a
+     * BufferStrategy's buffers aren't kept between frames.
+     */
+    public void setDirtyRectangles(boolean dirtyRectangles) {
+        this.dirtyRectangles = dirtyRectangles;
+    }
+
+    /**
+     * Returns true if dirty rectangle mode is on.
+     */
+    public boolean isDirtyRectangles() {
+        return dirtyRectangles;
+    }
+
+    /**
+     * Draws an image, such as one the program drew itself, at its own size with the top left corner of the
+     * image at the point (x, y). The image is drawn when the frame is replayed, which can be a few frames after
+     * update(), so it shouldn't be changed in the meantime.
+     */
+    public void drawImage(int x, int y, Image image) {
+        synchronized (commandLock) {
+            recording.commands.drawImage(image, x, y);
+        }
+    }
+
+    /**
+     * Draws an image stretched to width by height canvas pixels with the top left corner of the image at the point
+     * (x, y). An image made at the render scale (see getRenderScale()) is copied pixel for pixel. As with the
+     * method above, the image shouldn't be changed until a few frames after update().
+     */
+    public void drawImage(int x, int y, Image image, int width, int height) {
+        synchronized (commandLock) {
+            recording.commands.drawImage(image, x, y, width, height);
+        }
     }
 
     /**
@@ -494,55 +583,75 @@ public class SimpleCanvas {
      * using this color until changed.
      */
     public void setPenColor(Color c) {
-        SwingUtilities.invokeLater(new Runnable() {
-            @Override
-            public void run() {
-                offscreenGraphics.setColor(c);
-            }
-        });
+        synchronized (commandLock) {
+            recording.commands.setPenColor(c);
+        }
     }
 
     /**
      * Sets the canvas background color.  Must call clear() to take effect.
      */
     public void setBackgroundColor(Color c) {
-        SwingUtilities.invokeLater(new Runnable() {
-            @Override
-            public void run() {
-                bgColor = c;
-            }
-        });
+        synchronized (commandLock) {
+            recording.commands.setBackgroundColor(c);
+        }
     }
 
     /**
-     * Returns the color of the pixel at location (x, y) on the canvas.
+     * Returns the color of the pixel at location (x, y) on the canvas.  Everything drawn so far is
+     * finished first, even if update() has not been called yet.
      */
     public Color getPixelColor(int x, int y) {
-        final Color[] answer = new Color[1];
-        try {
-            SwingUtilities.invokeAndWait(new Runnable() {
-                @Override
-                public void run() {
-                    answer[0] = new Color(offscreenImage.getRGB(2 * x, 2 * y), true);
-                }
-            });
-        } catch (InterruptedException | InvocationTargetException e) {
-            e.printStackTrace();
+        synchronized (commandLock) {
+            finishDrawing();
+            return new Color(renderer.getPixel(x, y), true);
         }
-        return answer[0];
     }
 
     /**
      * Sets the pixel color at location (x, y) on the canvas.
      */
     public void setPixelColor(int x, int y, Color c) {
-        SwingUtilities.invokeLater(new Runnable() {
-            @Override
-            public void run() {
-                offscreenImage.setRGB(2 * x, 2 * y, c.getRGB());
-                //frame.repaint();
-            }
-        });
+        CanvasRenderer.checkRegion(x, y, 1, 1, width, height); // here, not when the frame is replayed later
+        synchronized (commandLock) {
+            recording.commands.setPixel(x, y, c.getRGB());
+        }
+    }
+
+    /**
+     * Copies the colors of a region of the canvas into argb, row by row, as ARGB ints.  Everything drawn so far is
+     * finished first, then the pixels are read straight out of the offscreen image, without a trip to the EDT.
+     */
+    public int[] getPixels(int x, int y, int width, int height, int[] argb) {
+        synchronized (commandLock) {
+            finishDrawing();
+            return renderer.getPixels(x, y, width, height, argb);
+        }
+    }
+
+    /**
+     * Sets the colors of a region of the canvas from argb, row by row, as ARGB ints.  Like other drawing, the
+     * pixels are set in order with everything else drawn this frame.
+     */
+    public void setPixels(int x, int y, int width, int height, int[] argb) {
+        CanvasRenderer.checkPixels(x, y, width, height, argb, this.width, this.height);
+        synchronized (commandLock) {
+            recording.commands.setPixels(x, y, width, height, argb);
+        }
+    }
+
+    /**
+     * Returns the current time in nanoseconds, from System.nanoTime().
+     */
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Returns true, since the canvas is shown on the screen as time really passes.
+     */
+    public boolean isRealTime() {
+        return true;
     }
 
     public void pause(int milliseconds) {
@@ -558,6 +667,9 @@ public class SimpleCanvas {
      */
     public void show() {
         update();
+        if (headless) {
+            return;
+        }
         /*SwingUtilities.invokeLater(new Runnable() {
             @Override
             public void run() {
@@ -583,6 +695,9 @@ public class SimpleCanvas {
      * Hides the canvas window on the screen, if it's currently shown.  No effect if it's already hidden.
      */
     public void hide() {
+        if (headless) {
+            return;
+        }
         SwingUtilities.invokeLater(new Runnable() {
             @Override
             public void run() {
@@ -605,6 +720,13 @@ public class SimpleCanvas {
         return width;
     }
 
+    /**
+     * Returns how many buffer pixels across each canvas pixel is drawn with: 2 on a HiDPI screen, otherwise 1.
+     */
+    public int getRenderScale() {
+        return renderScale;
+    }
+
     /**
      * If any drawing operations have taken place, update() actually draws them to the canvas.
      * Shapes are not normally drawn instantaneously; instead, they are not drawn until this
@@ -612,36 +734,250 @@ public class SimpleCanvas {
      * appear simultaneously on the screen.
      */
     public void update() {
-        /*try {
-            SwingUtilities.invokeAndWait(new Runnable() {
-                @Override
-                public void run() {
-                    System.out.println("EDT: repaint from update");
+        CanvasUpdateEvent event = new CanvasUpdateEvent();
+        event.begin();
+        int commands = submit(true);
+        if (event.shouldCommit()) {
+            event.commands = commands;
+            event.activeRendering = activeRendering;
+            event.commit();
+        }
+    }
+
+    /**
+     * Hands everything recorded since the last submit to the EDT as a single event, and starts recording
+     * into a fresh buffer. If present is true, the finished frame is also copied to the screen. Returns the number
+     * of commands submitted.
+     */
+    private int submit(boolean present) {
+        synchronized (commandLock) {
+            int commands = recording.commands.size();
+            if (commands == 0) {
+                return 0; // nothing new to draw
+            }
+            RecordedFrame submitted = recording;
+            submitted.present = present;
+            try {
+                if (activeRendering) {
+                    submitted.run(); // replay and present right here
+                }
+                else {
+                    submitted.postedAt = System.nanoTime();
+                    postedFrames.add(submitted);
+                    SwingUtilities.invokeLater(replayPostedFrame);
+                }
+            } finally {
+                // Even if replaying threw, the submitted frame has gone back to the free ones and mustn't be
+                // recorded into again.
+                try {
+                    recording = freeFrames.take(); // waits if the EDT is FRAMES_IN_FLIGHT frames behind
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                    recording = new RecordedFrame();
+                }
+            }
+            return commands;
+        }
+    }
+
+    /**
+     * Submits everything recorded so far without presenting it and waits until the EDT has replayed every
+     * submitted frame, so the offscreen image can be read directly.  Must hold commandLock, which keeps anything new
+     * from being submitted meanwhile; with active rendering, frames are replayed as they are submitted.  On the EDT,
+     * which can't wait for itself, the frames are replayed right here instead.
+     */
+    private void finishDrawing() {
+        if (SwingUtilities.isEventDispatchThread() && !activeRendering) {
+            finishDrawingOnEdt();
+            return;
+        }
+        submit(false);
+        synchronized (framesReplayed) {
+            while (freeFrames.size() < FRAMES_IN_FLIGHT - 1) {
+                try {
+                    framesReplayed.wait();
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Replays every frame posted to the EDT that it hasn't got to yet, in order, then everything recorded since,
+     * without presenting it.  Only call this on the EDT, holding commandLock: the posted frames are queued behind
+     * the event that is running, so waiting for them would never end, and submitting could wait for a free frame
+     * that only the EDT can give back.
+     */
+    private void finishDrawingOnEdt() {
+        RecordedFrame posted;
+        while ((posted = postedFrames.poll()) != null) {
+            posted.run();
+        }
+        if (recording.commands.size() == 0) {
+            return; // nothing new to draw
+        }
+        RecordedFrame pending = recording;
+        pending.present = false;
+        pending.postedAt = System.nanoTime();
+        recording = freeFrames.poll(); // every other frame has just been replayed and given back
+        pending.run();
+    }
+
+    /**
+     * Copies the canvas area of the offscreen image to the BufferStrategy's back buffer and flips it onto the
+     * screen, redrawing if the video memory holding the buffer was lost in the meantime.  Must hold commandLock.
+     */
+    private void presentActive() {
+        BufferStrategy strategy = bufferStrategy;
+        if (strategy == null) {
+            return; // the window hasn't been created yet
+        }
+        do {
+            do {
+                Graphics2D g = (Graphics2D) strategy.getDrawGraphics();
+                if (renderScale != 1) {
+                    g.addRenderingHints(presentHints);
+                }
+                g.drawImage(offscreenImage, 0, 0, width, height, 0, 0, offscreenImage.getWidth(), offscreenImage.getHeight(), null);
+                g.dispose();
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+    /**
+     * A RecordedFrame is a buffer of recorded drawing commands that replays itself when run, on the EDT or, with
+     * active rendering, on the thread that called update().
+     */
+    private class RecordedFrame implements Runnable {
+        private final DrawCommandBuffer commands = new DrawCommandBuffer();
+        private boolean present; // Whether to copy the result to the screen after replaying.
+        private long postedAt; // When the frame was posted to the EDT, from System.nanoTime().
+
+        @Override
+        public void run() {
+            try {
+                replay();
+            } finally {
+                // Give the frame back even if replaying threw, or update() and getPixels() would wait for it forever.
+                commands.reset();
+                freeFrames.offer(this);
+                synchronized (framesReplayed) {
+                    framesReplayed.notifyAll();
+                }
+            }
+        }
+
+        /** Replays the recorded commands into the offscreen image and, if present is set, copies it to the screen. */
+        private void replay() {
+            EdtFrameEvent event = null;
+            if (!activeRendering) {
+                event = new EdtFrameEvent();
+                event.begin();
+                event.queueLatency = System.nanoTime() - postedAt;
+                event.commands = commands.size();
+            }
+            DirtyRegion region = findRedrawRegion(commands);
+            if (region == null) {
+                renderer.execute(commands);
+            }
+            else {
+                Image background = commands.getBackgroundImage();
+                for (int r = 0; r < region.size(); r++) {
+                    renderer.restore(background, region.getX(r), region.getY(r), region.getWidth(r), region.getHeight(r));
+                }
+                commands.replay(renderer, true);
+            }
+            if (present) {
+                if (activeRendering) {
+                    presentActive();
+                }
+                else if (region == null || presentAll) {
+                    onscreenGraphics.drawImage(offscreenImage, 0, 0, null);
                     frame.repaint();
                 }
-            });
-        } catch (InterruptedException | InvocationTargetException e) {
-            e.printStackTrace();
-        }*/
-        SwingUtilities.invokeLater(new Runnable() {
-            @Override
-            public void run() {
-                //System.out.println("EDT: repaint from update");
-                onscreenGraphics.drawImage(offscreenImage, 0, 0, null);
-                //frame.repaint();
-                frame.repaint();
+                else {
+                    for (int r = 0; r < region.size(); r++) {
+                        int x = region.getX(r), y = region.getY(r);
+                        int w = region.getWidth(r), h = region.getHeight(r);
+                        int s = renderScale;
+                        onscreenGraphics.drawImage(offscreenImage, s * x, s * y, s * (x + w), s * (y + h),
+                                s * x, s * y, s * (x + w), s * (y + h), null);
+                        surface.repaint(x, y, w, h);
+                    }
+                }
+                presentAll = false;
             }
-        });
+            else {
+                presentAll = true;
+            }
+            if (event != null) {
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Works out which parts of the canvas have to be redrawn for a frame in dirty rectangle mode: everywhere it or
+     * the frame before it drew. Returns null if the whole frame has to be redrawn. Only call this from the thread
+     * that replays frames, once per frame.
+     */
+    private DirtyRegion findRedrawRegion(DrawCommandBuffer commands) {
+        DirtyRegion swap = lastFrameRegion;
+        lastFrameRegion = thisFrameRegion;
+        thisFrameRegion = swap;
+        thisFrameRegion.clear();
+
+        Image background = commands.getBackgroundImage();
+        if (background == null) {
+            thisFrameRegion.markAll(); // a frame with no background could leave anything anywhere
+        }
+        else {
+            commands.addBounds(thisFrameRegion);
+        }
+        boolean sameBackground = background != null && background == lastBackground;
+        lastBackground = background;
+        if (!dirtyRectangles || !sameBackground || thisFrameRegion.isAll() || lastFrameRegion.isAll()) {
+            return null;
+        }
+
+        redrawRegion.clear();
+        redrawRegion.addAll(lastFrameRegion);
+        redrawRegion.addAll(thisFrameRegion);
+        return redrawRegion;
+    }
+
+    /**
+     * Returns 2 if the default screen is HiDPI (scaled by more than 1), otherwise 1.
+     */
+    private static int detectRenderScale() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return 1;
+        }
+        GraphicsConfiguration config = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration();
+        return config.getDefaultTransform().getScaleX() > 1.0 ? 2 : 1;
     }
 
+    /**
+     * An icon showing an image drawn at a render scale, at the size of the canvas.  At scale 1 it is an
+     * ordinary ImageIcon; otherwise it scales the image down as it paints, which a HiDPI screen scales back up.
+     */
     private static class RetinaImageIcon extends ImageIcon {
+        private final int scale; // How many image pixels across each canvas pixel is.
+        private final RenderingHints hints; // How to scale the image while painting it.
 
-        public RetinaImageIcon(Image image) {
+        public RetinaImageIcon(Image image, int scale, boolean qualityHints) {
             super(image);
+            this.scale = scale;
+            hints = CanvasRenderer.createHints(qualityHints);
         }
 
         public int getIconWidth() {
-            return super.getIconWidth() / 2;
+            return super.getIconWidth() / scale;
         }
 
         /**
@@ -650,51 +986,25 @@ public class SimpleCanvas {
          * @return the height in pixels of this icon
          */
         public int getIconHeight() {
-            return super.getIconHeight() / 2;
+            return super.getIconHeight() / scale;
         }
 
         public synchronized void paintIcon(Component c, Graphics g, int x, int y) {
+            if (scale == 1) {
+                super.paintIcon(c, g, x, y);
+                return;
+            }
             Graphics2D g2 = (Graphics2D) g.create();
-            g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
-            g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            g2.scale(0.5, 0.5);
-            super.paintIcon(c, g2, x * 2, y * 2);
+            g2.addRenderingHints(hints);
+            g2.scale(1.0 / scale, 1.0 / scale);
+            super.paintIcon(c, g2, x * scale, y * scale);
             g2.dispose();
         }
     }
 
+    /** Returns the decoded image for the given filename or URL from the shared image cache. */
     private static Image getImage(String filename) {
-        if (filename == null) throw new IllegalArgumentException();
-
-        // to read from file
-        ImageIcon icon = new ImageIcon(filename);
-
-        // try to read from URL
-        if ((icon == null) || (icon.getImageLoadStatus() != MediaTracker.COMPLETE)) {
-            try {
-                URL url = new URL(filename);
-                icon = new ImageIcon(url);
-            } catch (MalformedURLException e) {
-                /* not a url */
-            }
-        }
-
-        // in case file is inside a .jar (classpath relative to StdDraw)
-        if ((icon == null) || (icon.getImageLoadStatus() != MediaTracker.COMPLETE)) {
-            URL url = SimpleCanvas.class.getResource(filename);
-            if (url != null)
-                icon = new ImageIcon(url);
-        }
-
-        // in case file is inside a .jar (classpath relative to root of jar)
-        if ((icon == null) || (icon.getImageLoadStatus() != MediaTracker.COMPLETE)) {
-            URL url = SimpleCanvas.class.getResource("/" + filename);
-            if (url == null) throw new IllegalArgumentException("image " + filename + " not found");
-            icon = new ImageIcon(url);
-        }
-
-        return icon.getImage();
+        return ImageCache.shared().get(filename);
     }
 
     class Keys
@@ -0,0 +1,45 @@
+package game;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/** A SnapshotExchange passes GameSnapshots from the simulation thread to the render thread without locks, using
+ * three snapshots: the simulation fills one, the renderer draws another, and the third holds the newest finished
+ * snapshot. Publishing and taking are both a single atomic swap, so neither thread ever waits for the other, and
+ * the renderer always gets the most recent tick, skipping any it was too slow to draw.
+ */
+class SnapshotExchange {
+    // Instance variables
+    private GameSnapshot back; // Being filled by the simulation thread.
+    private final AtomicReference<GameSnapshot> middle; // The newest published snapshot.
+    private GameSnapshot front; // Being drawn by the render thread.
+    private long published; // The number of snapshots published so far. Only used by the simulation thread.
+
+    /** Constructs an exchange with nothing published yet. */
+    public SnapshotExchange() {
+        back = new GameSnapshot();
+        middle = new AtomicReference<>(new GameSnapshot());
+        front = new GameSnapshot();
+    }
+
+    /** Returns the snapshot the simulation should fill next. Only call this from the simulation thread. */
+    public GameSnapshot getBack() {
+        return back;
+    }
+
+    /** Publishes the filled back snapshot, stamped with the given time, as the newest one. Simulation thread only. */
+    public void publish(long time) {
+        back.time = time;
+        back.sequence = ++published;
+        back = middle.getAndSet(back);
+    }
+
+    /** Returns the newest published snapshot, or null if nothing has been published yet. The snapshot belongs to
+     * the caller until the next call to latest(). Only call this from the render thread.
+     */
+    public GameSnapshot latest() {
+        if (middle.get().sequence > front.sequence) {
+            front = middle.getAndSet(front);
+        }
+        return front.sequence == 0 ? null : front;
+    }
+}
@@ -0,0 +1,49 @@
+package game;
+
+/** Plays the game with an AutopilotController for a long time, by default an hour of game time, to find memory that
+ * grows the longer a game goes on. Games are endless (winning doesn't end them) and run headless without drawing or
+ * waiting, so an hour takes well under a minute. If the bee dies, a new game starts with the next seed. Each game
+ * minute it prints the sizes and capacities of the enemy and bullet stores and the heap in use after a full
+ * collection; capacities or heap that keep climbing point to a leak.
+ *
+ * Usage: java -Djava.awt.headless=true game.SoakTest [minutes] [seed]
+ */
+public class SoakTest {
+    private static final int TICKS_PER_MINUTE = 20 * 60; // The game ticks 20 times a second.
+
+    public static void main(String[] args) {
+        int minutes = args.length > 0 ? Integer.parseInt(args[0]) : 60;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+
+        Runtime runtime = Runtime.getRuntime();
+        Game game = newGame(seed);
+        int games = 1;
+        long start = System.nanoTime();
+        System.out.printf("%6s %6s %8s %8s %8s %8s %8s %8s%n",
+                "minute", "games", "points", "enemies", "capacity", "bullets", "capacity", "heap MB");
+        for (int minute = 1; minute <= minutes; minute++) {
+            int ticks = 0;
+            while (ticks < TICKS_PER_MINUTE) {
+                ticks += game.simulate(TICKS_PER_MINUTE - ticks);
+                if (game.isGameOver()) {
+                    game = newGame(seed + games);
+                    games++;
+                }
+            }
+            System.gc();
+            EntityStore enemies = game.getEnemies();
+            EntityStore bullets = game.getMainBee().getBullets();
+            System.out.printf("%6d %6d %8d %8d %8d %8d %8d %8.1f%n", minute, games, game.getPoints(),
+                    enemies.size(), enemies.getCapacity(), bullets.size(), bullets.getCapacity(),
+                    (runtime.totalMemory() - runtime.freeMemory()) / 1e6);
+        }
+        System.out.printf("%d minutes of game time in %.1f s%n", minutes, (System.nanoTime() - start) / 1e9);
+    }
+
+    private static Game newGame(long seed) {
+        Game game = new Game(new HeadlessCanvas(1280, 720, false), seed);
+        game.setController(new AutopilotController());
+        game.setEndless(true);
+        return game;
+    }
+}
@@ -0,0 +1,108 @@
+package game;
+
+import java.util.Arrays;
+
+/** A SpatialHash is a uniform grid over the playing field used to find which objects might be touching without
+ * testing every pair. Each object is inserted, by an int id of the caller's choosing (usually its index in a list),
+ * into every cell its bounding box covers; a query returns the ids in the cells a box covers. Objects off the edge of
+ * the field are kept in the nearest edge cells, so nothing is ever missed.
+ *
+ * The grid is rebuilt from scratch every tick with clear() and insert(). All of its storage is reused between ticks,
+ * so once it has grown to fit the largest tick it allocates nothing.
+ */
+class SpatialHash {
+    // Instance variables
+    private final int cellSize; // The width and height of a cell in pixels.
+    private final int columns, rows; // The number of cells across and down the field.
+    private final int[] cellHead; // The first entry in each cell, or -1 if the cell is empty.
+    private int[] entryId; // The id stored in each entry.
+    private int[] entryNext; // The next entry in the same cell, or -1.
+    private int entryCount;
+    private int[] seenStamp; // For each id, the query that last returned it, so no id is returned twice.
+    private int stamp;
+    private int[] results; // The ids found by the last query.
+    private int resultCount;
+
+    /** Constructs a grid covering a field of the given size with square cells of the given size. */
+    public SpatialHash(int width, int height, int cellSize) {
+        this.cellSize = cellSize;
+        columns = Math.max(1, (width + cellSize - 1) / cellSize);
+        rows = Math.max(1, (height + cellSize - 1) / cellSize);
+        cellHead = new int[columns * rows];
+        Arrays.fill(cellHead, -1);
+        entryId = new int[256];
+        entryNext = new int[256];
+        seenStamp = new int[64];
+        results = new int[64];
+    }
+
+    /** Removes every object from the grid. */
+    public void clear() {
+        Arrays.fill(cellHead, -1);
+        entryCount = 0;
+    }
+
+    /** Adds an object with the given id and bounding box to every cell the box covers. Ids must not be negative. */
+    public void insert(int id, int left, int top, int right, int bottom) {
+        if (id >= seenStamp.length) {
+            seenStamp = Arrays.copyOf(seenStamp, Math.max(id + 1, seenStamp.length * 2));
+        }
+        int firstColumn = column(left), lastColumn = column(right);
+        int firstRow = row(top), lastRow = row(bottom);
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstColumn; c <= lastColumn; c++) {
+                if (entryCount == entryId.length) {
+                    entryId = Arrays.copyOf(entryId, entryCount * 2);
+                    entryNext = Arrays.copyOf(entryNext, entryCount * 2);
+                }
+                int cell = r * columns + c;
+                entryId[entryCount] = id;
+                entryNext[entryCount] = cellHead[cell];
+                cellHead[cell] = entryCount;
+                entryCount++;
+            }
+        }
+    }
+
+    /** Finds every object sharing a cell with the given bounding box and returns how many there are. The ids can
+     * then be read, in increasing order, with getResult(0) to getResult(count - 1), until the next query.
+     */
+    public int query(int left, int top, int right, int bottom) {
+        if (++stamp == 0) { // wrapped around after billions of queries
+            Arrays.fill(seenStamp, 0);
+            stamp = 1;
+        }
+        resultCount = 0;
+        int firstColumn = column(left), lastColumn = column(right);
+        int firstRow = row(top), lastRow = row(bottom);
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstColumn; c <= lastColumn; c++) {
+                for (int e = cellHead[r * columns + c]; e != -1; e = entryNext[e]) {
+                    int id = entryId[e];
+                    if (seenStamp[id] != stamp) {
+                        seenStamp[id] = stamp;
+                        if (resultCount == results.length) {
+                            results = Arrays.copyOf(results, resultCount * 2);
+                        }
+                        results[resultCount++] = id;
+                    }
+                }
+            }
+        }
+        Arrays.sort(results, 0, resultCount); // callers rely on seeing objects in list order
+        return resultCount;
+    }
+
+    /** Returns the id of the i-th object found by the last query. */
+    public int getResult(int i) {
+        return results[i];
+    }
+
+    private int column(int x) {
+        return Math.min(columns - 1, Math.max(0, Math.floorDiv(x, cellSize)));
+    }
+
+    private int row(int y) {
+        return Math.min(rows - 1, Math.max(0, Math.floorDiv(y, cellSize)));
+    }
+}
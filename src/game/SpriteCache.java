@@ -0,0 +1,143 @@
+package game;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/** A SpriteCache holds images that have already been scaled to the size they are drawn at, keyed by filename, width,
+ * height and render scale, so a sprite drawn on a HiDPI canvas is made with twice the pixels across. The scaled
+ * copies are created in a format compatible with the screen, so drawing one every frame is a plain copy instead of a
+ * rescale. Images are decoded through the shared ImageCache, and the least recently used sprite is evicted once the
+ * cache holds more sprites than its capacity.
+ */
+public class SpriteCache {
+    private static final int DEFAULT_CAPACITY = 128; // Enough for every image at every size the game draws.
+    private static final SpriteCache SHARED = new SpriteCache(DEFAULT_CAPACITY, ImageCache.shared());
+
+    // Instance variables
+    private final ImageCache images; // Where the unscaled source images come from.
+    private final LruCache<Key, BufferedImage> sprites; // Scaled sprites in least to most recently used order.
+    private final Key probe; // Reused for lookups so a cache hit allocates nothing.
+    private long hits; // The number of lookups answered from the cache.
+    private long misses; // The number of lookups that had to scale the image.
+
+    /** Constructs a new, empty cache holding at most the given number of sprites, decoding images from the given cache. */
+    public SpriteCache(int capacity, ImageCache images) {
+        this.images = images;
+        probe = new Key(null, 0, 0, 1);
+        sprites = new LruCache<>(capacity);
+    }
+
+    /** Returns the sprite cache shared by every canvas in this program. */
+    public static SpriteCache shared() {
+        return SHARED;
+    }
+
+    /** Returns the image for the given filename or URL scaled to exactly width by height pixels. */
+    public BufferedImage get(String filename, int width, int height) {
+        return get(filename, width, height, 1);
+    }
+
+    /** Returns the image for the given filename or URL scaled to be drawn width by height canvas pixels in size on a
+     * canvas with the given render scale: width * scale by height * scale pixels.
+     */
+    public synchronized BufferedImage get(String filename, int width, int height, int scale) {
+        if (filename == null) throw new IllegalArgumentException();
+        if (width <= 0 || height <= 0) throw new IllegalArgumentException("sprite size must be positive");
+        if (scale <= 0) throw new IllegalArgumentException("render scale must be positive");
+        probe.set(filename, width, height, scale);
+        BufferedImage sprite = sprites.get(probe);
+        if (sprite != null) {
+            hits++;
+            return sprite;
+        }
+        misses++;
+        sprite = scale(filename, width * scale, height * scale);
+        sprites.put(new Key(filename, width, height, scale), sprite);
+        return sprite;
+    }
+
+    /** Getter function for the number of lookups that were answered from the cache. */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /** Getter function for the number of lookups that had to scale the image. */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /** Getter function for the number of sprites currently cached. */
+    public synchronized int size() {
+        return sprites.size();
+    }
+
+    /** Removes every sprite from the cache and resets the hit and miss counters. */
+    public synchronized void clear() {
+        sprites.clear();
+        hits = 0;
+        misses = 0;
+    }
+
+    /** Draws the source image once into a new screen compatible image of the requested size. */
+    private BufferedImage scale(String filename, int width, int height) {
+        Image source = images.get(filename);
+        if (source.getWidth(null) < 0 || source.getHeight(null) < 0) {
+            throw new IllegalArgumentException("image " + filename + " is corrupt");
+        }
+        BufferedImage sprite = createCompatibleImage(width, height, isOpaque(filename));
+        Graphics2D g = sprite.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(source, 0, 0, width, height, null);
+        g.dispose();
+        return sprite;
+    }
+
+    /** Returns an image in the screen's pixel format, or a plain RGB or premultiplied ARGB image when there is no
+     * screen. Premultiplied sprites blend onto the canvas faster than plain ARGB ones.
+     */
+    private static BufferedImage createCompatibleImage(int width, int height, boolean opaque) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            GraphicsConfiguration config = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice().getDefaultConfiguration();
+            return config.createCompatibleImage(width, height, opaque ? Transparency.OPAQUE : Transparency.TRANSLUCENT);
+        }
+        return new BufferedImage(width, height, opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB_PRE);
+    }
+
+    /** JPEGs never carry transparency, so they can be stored in an opaque format that is cheaper to draw. */
+    private static boolean isOpaque(String filename) {
+        String lower = filename.toLowerCase();
+        return lower.endsWith(".jpg") || lower.endsWith(".jpeg");
+    }
+
+    /** The (filename, width, height, scale) tuple a sprite is cached under. */
+    private static class Key {
+        private String filename;
+        private int width, height, scale;
+
+        public Key(String filename, int width, int height, int scale) {
+            set(filename, width, height, scale);
+        }
+
+        public void set(String filename, int width, int height, int scale) {
+            this.filename = filename;
+            this.width = width;
+            this.height = height;
+            this.scale = scale;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return width == other.width && height == other.height && scale == other.scale
+                    && filename.equals(other.filename);
+        }
+
+        @Override
+        public int hashCode() {
+            return ((filename.hashCode() * 31 + width) * 31 + height) * 31 + scale;
+        }
+    }
+}
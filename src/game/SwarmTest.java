@@ -0,0 +1,77 @@
+package game;
+
+import java.util.Arrays;
+
+/** Qualifies a machine for swarm mode: plays a game with WaveScheduler.swarm() and an AutopilotController, and
+ * times the tick and the drawing of each one. The game keeps up if a tick and a frame together fit in the 50 ms a
+ * tick lasts at 20 ticks a second. The bee can't be hurt and winning doesn't end the game, so the swarm stays at full
+ * size however the autopilot does.
+ *
+ * By default frames are drawn on a SimpleCanvas, which records them and replays them into its back buffer the way
+ * the game's window does. Without a display it has no window, so showing the frame on screen isn't timed, and it
+ * replays on the thread that draws instead of its own. The headless canvas draws straight into an image instead.
+ *
+ * Usage: java [-Djava.awt.headless=true] game.SwarmTest [enemies] [seconds] [simple|headless] [renderScale]
+ * Run it from the project root so the images are found.
+ */
+public class SwarmTest {
+    private static final int TICKS_PER_SECOND = 20;
+    private static final double BUDGET_MS = 1000.0 / TICKS_PER_SECOND;
+
+    public static void main(String[] args) {
+        int maxEnemies = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        boolean simple = args.length <= 2 || args[2].equals("simple");
+        int renderScale = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+
+        GameCanvas canvas = simple ? new SimpleCanvas(1280, 720, "My Game", true, renderScale, true, true)
+                : new HeadlessCanvas(1280, 720, true);
+        Game game = new Game(canvas, 1);
+        game.setController(new AutopilotController());
+        game.setWaveScheduler(WaveScheduler.swarm(maxEnemies));
+        game.setInvulnerable(true);
+        game.setEndless(true);
+
+        int ticks = seconds * TICKS_PER_SECOND;
+        double[] tickMs = new double[ticks], drawMs = new double[ticks], totalMs = new double[ticks];
+        int peak = 0;
+        for (int t = 0; t < ticks; t++) {
+            long start = System.nanoTime();
+            game.simulate(1);
+            game.publishSnapshot();
+            long ticked = System.nanoTime();
+            game.draw();
+            long drawn = System.nanoTime();
+            tickMs[t] = (ticked - start) / 1e6;
+            drawMs[t] = (drawn - ticked) / 1e6;
+            totalMs[t] = (drawn - start) / 1e6;
+            peak = Math.max(peak, game.getEnemies().size());
+        }
+
+        int over = 0;
+        for (double ms : totalMs) {
+            if (ms > BUDGET_MS) {
+                over++;
+            }
+        }
+        System.out.printf("%d ticks on a %s at render scale %d, up to %d enemies alive%n", ticks,
+                canvas.getClass().getSimpleName(), canvas.getRenderScale(), peak);
+        printSpread("tick", tickMs);
+        printSpread("draw", drawMs);
+        printSpread("tick + draw", totalMs);
+        double p99 = percentile(totalMs, 99);
+        System.out.printf("%d ticks (%.1f%%) over the %.0f ms budget: %s%n", over, 100.0 * over / ticks, BUDGET_MS,
+                p99 <= BUDGET_MS ? "holds 20 Hz" : "does NOT hold 20 Hz");
+    }
+
+    private static void printSpread(String name, double[] ms) {
+        System.out.printf("%-12s median %6.2f ms, p90 %6.2f ms, p99 %6.2f ms, max %6.2f ms%n", name,
+                percentile(ms, 50), percentile(ms, 90), percentile(ms, 99), percentile(ms, 100));
+    }
+
+    private static double percentile(double[] values, int p) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, sorted.length * p / 100)];
+    }
+}
@@ -1,11 +1,24 @@
 package game;
 
+import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 /** Test class made just for simple little function checks.*/
 public class Tests {
-    public static void main(String[] args) {
+    private static final int REPLAY_TICKS = 300; // How long the recorded session in testRecordAndReplay is.
+
+    public static void main(String[] args) throws IOException {
         //testRandomUpgrades();
         //testPlacingUpgrades();
         //testSpawningEnemies();
+        testRecordAndReplay();
+        testEnemyNextToBee();
+        testStartingClick();
+        testWaveSchedule();
+        testBadPixels();
     }
 
     /** Tests creation of random upgrade location. */
@@ -31,4 +44,185 @@ public class Tests {
         canvas.update();
         canvas.show();
     }
+
+    /** Tests that a recorded session replays exactly: plays a scripted session while recording it, plays the
+     * recording back, and checks that every tick of the replay ends in the same state as the recorded tick did.
+     */
+    public static void testRecordAndReplay() throws IOException {
+        Path file = Files.createTempFile("hive", ".rec");
+        HeadlessCanvas canvas = new HeadlessCanvas(1280, 720, false);
+        Game recorded = new Game(canvas, 1234);
+        recorded.recordInput(file);
+        long[] states = new long[REPLAY_TICKS];
+        for (int tick = 0; tick < REPLAY_TICKS; tick++) {
+            scriptInput(canvas, tick);
+            recorded.simulate(1);
+            states[tick] = hashState(recorded);
+        }
+        recorded.stopRecording();
+
+        InputReplay replay = new InputReplay(file);
+        Game replayed = new Game(new HeadlessCanvas(1280, 720, false), replay.getSeed());
+        replayed.replayInput(replay);
+        int mismatch = -1;
+        for (int tick = 0; tick < REPLAY_TICKS && mismatch < 0; tick++) {
+            replayed.simulate(1);
+            if (hashState(replayed) != states[tick]) {
+                mismatch = tick;
+            }
+        }
+        Files.delete(file);
+        report("testRecordAndReplay", mismatch < 0, "the replay went out of sync at tick " + mismatch);
+    }
+
+    /** Tests that an enemy right next to the bee, in the same flow field cell, still moves into it and gets pushed
+     * back, so it has to come back before it can hurt the bee again, rather than standing still and hurting it every
+     * tick. It starts so close that the first push back still leaves it touching, so it hits twice in 5 ticks.
+     */
+    public static void testEnemyNextToBee() {
+        Game game = new Game(new HeadlessCanvas(1280, 720, false), 1234);
+        Bee bee = game.getMainBee();
+        bee.setLocationX(630);
+        bee.setLocationY(370);
+        EntityStore enemies = game.getEnemies();
+        int enemy = enemies.add(0, 625, 370); // a red wasp
+        int damage = enemies.dph[enemy];
+        int health = bee.getHealth();
+        for (int tick = 0; tick < 5; tick++) {
+            game.moveEnemies();
+            game.checkForCollisions();
+        }
+        report("testEnemyNextToBee", bee.getHealth() >= health - 2 * damage && enemies.x[enemy] != 625,
+                "after 5 ticks the enemy is at x = " + enemies.x[enemy] + " and the bee's health went from "
+                        + health + " to " + bee.getHealth());
+    }
+
+    /** Tests that the click that starts the game doesn't also fire a shot: a game nobody plays after that click
+     * should end with the bee's gun still full.
+     */
+    public static void testStartingClick() {
+        HeadlessCanvas canvas = new HeadlessCanvas(1280, 720, false) {
+            @Override
+            public void waitForClick() {
+                pressMouse(640, 360); // the click a SimpleCanvas waits for also goes into its input queue
+                releaseMouse(640, 360);
+            }
+        };
+        Game game = new Game(canvas, 1234);
+        game.runGame(); // ends when the enemies have worn the bee down
+        report("testStartingClick", game.getMainBee().getAmmo() == 30,
+                "the bee has " + game.getMainBee().getAmmo() + " of its 30 bullets left");
+    }
+
+    /** Tests when enemies spawn: the standard game spawns 1 every 20 ticks up to 20 alive, and swarm mode moves on to
+     * a faster, bigger wave after ticks 100 and 200, never spawning past the wave's limit. Only a swarm draws
+     * enemies stacked on top of each other once.
+     */
+    public static void testWaveSchedule() {
+        WaveScheduler standard = WaveScheduler.standard();
+        WaveScheduler swarm = WaveScheduler.swarm(10_000); // waves of 12 up to 1000, 25 up to 5000, 50 up to 10000
+        int[][] checks = { // tick, enemies alive, enemies that should spawn, for the standard game and then a swarm
+                {1, 0, 0}, {19, 0, 0}, {20, 0, 1}, {21, 0, 0}, {40, 19, 1}, {40, 20, 0}, {100_000, 0, 1},
+                {1, 0, 12}, {100, 0, 12}, {100, 995, 5}, {100, 1000, 0}, {101, 1000, 25}, {200, 4990, 10},
+                {201, 0, 50}, {201, 9990, 10}, {100_000, 10_000, 0},
+        };
+        String failure = null;
+        for (int c = 0; c < checks.length && failure == null; c++) {
+            WaveScheduler scheduler = c < 7 ? standard : swarm;
+            int spawned = scheduler.getSpawnCount(checks[c][0], checks[c][1]);
+            if (spawned != checks[c][2]) {
+                failure = (c < 7 ? "standard" : "swarm") + " spawned " + spawned + " instead of " + checks[c][2]
+                        + " at tick " + checks[c][0] + " with " + checks[c][1] + " alive";
+            }
+        }
+        if (failure == null && (standard.isStackedEnemiesDrawnOnce() || !swarm.isStackedEnemiesDrawnOnce())) {
+            failure = "only a swarm should draw stacked enemies once";
+        }
+        report("testWaveSchedule", failure == null, failure);
+    }
+
+    /** Tests that a SimpleCanvas rejects pixels outside it, or too few of them, when they are set rather than when
+     * the frame is drawn, and goes on drawing afterwards.
+     */
+    public static void testBadPixels() {
+        SimpleCanvas canvas = new SimpleCanvas(100, 100, "My Game", true, 1, true, true);
+        String failure = null;
+        try {
+            canvas.setPixelColor(100, 0, Color.RED);
+            failure = "a pixel outside the canvas was accepted";
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            canvas.setPixels(0, 0, 10, 10, new int[99]);
+            failure = "too few pixels were accepted";
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        canvas.setPixelColor(1, 1, Color.BLUE);
+        canvas.update();
+        if (failure == null && !canvas.getPixelColor(1, 1).equals(Color.BLUE)) {
+            failure = "the canvas stopped drawing";
+        }
+        report("testBadPixels", failure == null, failure);
+    }
+
+    /** The input for one tick of the scripted session: the bee flies up and down, the player clicks every 10 ticks,
+     * so most clicks are followed by ticks where nothing changes, holds the button down now and then, and reloads.
+     */
+    private static void scriptInput(HeadlessCanvas canvas, int tick) {
+        if (tick % 40 == 0) {
+            canvas.releaseKey(KeyEvent.VK_S);
+            canvas.pressKey(KeyEvent.VK_W);
+        }
+        else if (tick % 40 == 20) {
+            canvas.releaseKey(KeyEvent.VK_W);
+            canvas.pressKey(KeyEvent.VK_S);
+        }
+        int x = 700 + tick * 7 % 500;
+        int y = 100 + tick * 13 % 550;
+        if (tick % 10 == 0) { // a quick click, let go of in the same tick
+            canvas.pressMouse(x, y);
+            canvas.releaseMouse(x, y);
+        }
+        else if (tick % 30 == 15) {
+            canvas.pressMouse(x, y);
+        }
+        else if (tick % 30 == 20) {
+            canvas.releaseMouse(x, y);
+        }
+        if (tick % 75 == 74) {
+            canvas.pressKey(KeyEvent.VK_R);
+        }
+        else if (tick % 75 == 0) {
+            canvas.releaseKey(KeyEvent.VK_R);
+        }
+    }
+
+    /** Returns a hash of everything a tick changes: the bee, its bullets, the enemies and the points. */
+    private static long hashState(Game game) {
+        Bee bee = game.getMainBee();
+        long hash = game.getPoints();
+        hash = hash * 31 + bee.getCenterX();
+        hash = hash * 31 + bee.getCenterY();
+        hash = hash * 31 + bee.getHealth();
+        hash = hash * 31 + bee.getAmmo();
+        hash = hash * 31 + hashStore(bee.getBullets());
+        return hash * 31 + hashStore(game.getEnemies());
+    }
+
+    /** Returns a hash of the type, position and health of everything in a store. */
+    private static long hashStore(EntityStore store) {
+        long hash = store.size();
+        for (int i = 0; i < store.size(); i++) {
+            hash = ((hash * 31 + store.type[i]) * 31 + store.x[i]) * 31 + store.y[i];
+            hash = hash * 31 + store.health[i];
+        }
+        return hash;
+    }
+
+    /** Prints whether a check passed, and why not if it didn't. */
+    private static void report(String name, boolean passed, String failure) {
+        System.out.println(name + (passed ? " passed" : " FAILED: " + failure));
+    }
 }
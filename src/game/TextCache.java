@@ -0,0 +1,139 @@
+package game;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/** A TextCache holds strings that have already been drawn, each in its own transparent image, keyed by the text,
+ * font, color, render scale and whether it was antialiased. Drawing the same text again is then one image copy
+ * instead of laying out and rasterizing every glyph, and centering it needs no FontMetrics. The least recently used
+ * text is evicted once the cache holds more than its capacity.
+ */
+public class TextCache {
+    private static final int DEFAULT_CAPACITY = 64; // Plenty for a HUD, a prompt and a few screens of text.
+    private static final TextCache SHARED = new TextCache(DEFAULT_CAPACITY);
+
+    // Instance variables
+    private final LruCache<Key, TextImage> texts; // Drawn text in least to most recently used order.
+    private final Key probe; // Reused for lookups so a cache hit allocates nothing.
+    private long hits; // The number of lookups answered from the cache.
+    private long misses; // The number of lookups that had to draw the text.
+
+    /** Constructs a new, empty cache holding at most the given number of strings. */
+    public TextCache(int capacity) {
+        probe = new Key(null, null, 0, 0, false);
+        texts = new LruCache<>(capacity);
+    }
+
+    /** Returns the text cache shared by every canvas in this program. */
+    public static TextCache shared() {
+        return SHARED;
+    }
+
+    /** Returns the given text drawn in the given font and color, at scale image pixels per canvas pixel, with or
+     * without antialiasing.
+     */
+    public synchronized TextImage get(String text, Font font, int rgb, int scale, boolean antialias) {
+        if (text == null || font == null) throw new IllegalArgumentException();
+        probe.set(text, font, rgb, scale, antialias);
+        TextImage image = texts.get(probe);
+        if (image != null) {
+            hits++;
+            return image;
+        }
+        misses++;
+        image = new TextImage(text, font, new Color(rgb, true), scale, antialias);
+        texts.put(new Key(text, font, rgb, scale, antialias), image);
+        return image;
+    }
+
+    /** Getter function for the number of lookups that were answered from the cache. */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /** Getter function for the number of lookups that had to draw the text. */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /** Getter function for the number of strings currently cached. */
+    public synchronized int size() {
+        return texts.size();
+    }
+
+    /** Removes every string from the cache and resets the hit and miss counters. */
+    public synchronized void clear() {
+        texts.clear();
+        hits = 0;
+        misses = 0;
+    }
+
+    /** A TextImage is a string drawn once into an image, with the measurements needed to place it. */
+    public static class TextImage {
+        // Instance variables
+        final BufferedImage image; // The text, with pad canvas pixels of room on every side.
+        final int width; // How far the text advances, in canvas pixels.
+        final int height; // The font's line height, in canvas pixels.
+        final int ascent; // How far the font reaches above the baseline, in canvas pixels.
+        final int pad; // Room left around the text for glyphs that reach past their advance.
+
+        private TextImage(String text, Font font, Color color, int scale, boolean antialias) {
+            BufferedImage scratch = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D measure = scratch.createGraphics();
+            measure.addRenderingHints(CanvasRenderer.createHints(antialias));
+            measure.scale(scale, scale); // glyphs advance differently at different scales
+            FontMetrics metrics = measure.getFontMetrics(font);
+            width = metrics.stringWidth(text);
+            height = metrics.getHeight();
+            ascent = metrics.getAscent();
+            pad = 2 + font.getSize() / 8;
+
+            int imageWidth = (width + 2 * pad) * scale;
+            int imageHeight = (ascent + metrics.getDescent() + 2 * pad) * scale;
+            image = new BufferedImage(Math.max(1, imageWidth), Math.max(1, imageHeight), BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = image.createGraphics();
+            g.addRenderingHints(CanvasRenderer.createHints(antialias));
+            g.scale(scale, scale);
+            g.setFont(font);
+            g.setColor(color);
+            g.drawString(text, pad, pad + ascent);
+            g.dispose();
+            measure.dispose();
+        }
+    }
+
+    /** The (text, font, color, scale, antialias) tuple drawn text is cached under. */
+    private static class Key {
+        private String text;
+        private Font font;
+        private int rgb, scale;
+        private boolean antialias;
+
+        public Key(String text, Font font, int rgb, int scale, boolean antialias) {
+            set(text, font, rgb, scale, antialias);
+        }
+
+        public void set(String text, Font font, int rgb, int scale, boolean antialias) {
+            this.text = text;
+            this.font = font;
+            this.rgb = rgb;
+            this.scale = scale;
+            this.antialias = antialias;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return rgb == other.rgb && scale == other.scale && antialias == other.antialias
+                    && text.equals(other.text) && font.equals(other.font);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = text.hashCode() * 31 + font.hashCode();
+            hash = (hash * 31 + rgb) * 31 + scale;
+            return hash * 2 + (antialias ? 1 : 0);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package game;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** A Java Flight Recorder event for one phase of a game tick, such as moving the enemies or checking collisions,
+ * with the number of objects in play once the phase was done. Start a recording with jcmd (pid) JFR.start and these
+ * show up under Hive Defender.
+ */
+@Name("game.TickPhase")
+@Label("Tick Phase")
+@Category("Hive Defender")
+@Description("Time spent in one phase of a game tick")
+class TickPhaseEvent extends Event {
+    @Label("Phase")
+    String phase; // Which part of the tick, named after the method that does it.
+
+    @Label("Tick")
+    int tick; // The game counter of the tick.
+
+    @Label("Enemies")
+    int enemies;
+
+    @Label("Bullets")
+    int bullets;
+
+    @Label("Upgrades")
+    int upgrades;
+}
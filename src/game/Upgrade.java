@@ -1,25 +1,36 @@
 package game;
 
-import java.lang.Math;
-
 /** This class is a subclass of the superclass GameObject. An Upgrade is a gameobject that the Bee class can "pick up"
  * and gain some type of benefit (either health or killing all the enemies).
  */
 class Upgrade extends GameObject {
+    private final GameRandom random; // Picks where the upgrade is placed.
 
     /** Constructor for an Upgrade. Will instantiate an upgrade with a random location in the game. */
     public Upgrade() {
+        this(new GameRandom());
+    }
+
+    /** Constructor for an Upgrade placed wherever the given generator picks. */
+    public Upgrade(GameRandom random) {
         super();
+        this.random = random;
         setHeight(70);
         setWidth(70);
         randomLocationGenerator();
         imageFilename = "crate.png";
     }
 
+    /** Resets the upgrade to a new random location, like a new upgrade. */
+    public void reset() {
+        super.reset();
+        randomLocationGenerator();
+    }
+
     /** Sets the random location to place the upgrade on the screen. */
     public void randomLocationGenerator() {
-        int randomNumX = (int)(Math.random() * 1001 + 50); // random X coordinate that allows full image to appear on screen
-        int randomNumY = (int)(Math.random() * 401 + 200); // random Y coordinate that allows full image to appear on screen
+        int randomNumX = random.nextInt(50, 1051); // random X coordinate that allows full image to appear on screen
+        int randomNumY = random.nextInt(200, 601); // random Y coordinate that allows full image to appear on screen
         location.setX(randomNumX);
         location.setY(randomNumY);
     }
@@ -0,0 +1,164 @@
+package game;
+
+import java.util.ArrayList;
+
+/** A WaveScheduler decides how fast enemies spawn and how many can be alive at once, in waves that follow one
+ * another as the game goes on, and how often upgrades appear. The last wave carries on until the game ends.
+ *
+ * standard() is the game as it has always played: one enemy a second, at most 20 alive and at most 2 upgrades.
+ * swarm() ramps up to thousands of enemies spawning many per tick, to stress the game and qualify hardware.
+ */
+class WaveScheduler {
+    /** A wave duration for a wave that never ends. */
+    public static final int FOREVER = Integer.MAX_VALUE;
+
+    // Instance variables
+    private final ArrayList<Wave> waves; // The waves in the order they happen.
+    private int yellowJacketChance; // 1 in this many spawned enemies is a yellow jacket.
+    private int maxUpgrades; // The most upgrades waiting to be picked up at once.
+    private int upgradeChance; // The chance of an upgrade appearing each tick is 1 in this.
+    private boolean stackedEnemiesDrawnOnce; // Whether enemies stacked exactly on top of each other are drawn once.
+
+    /** Constructs a scheduler with no waves yet, where 1 in 10 enemies is a yellow jacket and there is a 1 in 300
+     * chance each tick of one of at most 2 upgrades appearing.
+     */
+    public WaveScheduler() {
+        waves = new ArrayList<>();
+        yellowJacketChance = 10;
+        maxUpgrades = 2;
+        upgradeChance = 300;
+    }
+
+    /** Returns the scheduler for the normal game: 1 enemy every 20 ticks (a second), never more than 20 alive. */
+    public static WaveScheduler standard() {
+        WaveScheduler scheduler = new WaveScheduler();
+        scheduler.addWave(FOREVER, 20, 1, 20);
+        return scheduler;
+    }
+
+    /** Returns a scheduler for swarm mode, building up over 20 seconds to maxEnemies alive at once: a tenth of them,
+     * then half, then all, each wave spawning faster than the one before. Enemies stacked exactly on top of each other
+     * are drawn once, which changes the picture slightly but leaves a fraction of a swarm's sprites to draw.
+     */
+    public static WaveScheduler swarm(int maxEnemies) {
+        WaveScheduler scheduler = new WaveScheduler();
+        int perTick = Math.max(1, maxEnemies / 200); // the last wave fills up in 10 seconds
+        scheduler.addWave(100, 1, Math.max(1, perTick / 4), Math.max(1, maxEnemies / 10));
+        scheduler.addWave(100, 1, Math.max(1, perTick / 2), Math.max(1, maxEnemies / 2));
+        scheduler.addWave(FOREVER, 1, perTick, maxEnemies);
+        scheduler.setStackedEnemiesDrawnOnce(true);
+        return scheduler;
+    }
+
+    /** Adds a wave after the ones already added, lasting durationTicks ticks (or FOREVER), in which spawnCount
+     * enemies spawn every spawnInterval ticks until maxEnemies are alive.
+     */
+    public void addWave(int durationTicks, int spawnInterval, int spawnCount, int maxEnemies) {
+        if (durationTicks <= 0 || spawnInterval <= 0 || spawnCount < 0 || maxEnemies < 0) {
+            throw new IllegalArgumentException("wave settings must be positive");
+        }
+        waves.add(new Wave(durationTicks, spawnInterval, spawnCount, maxEnemies));
+    }
+
+    /** Returns the wave that is on during the given tick of the game, counting from 1. After the last wave ends it
+     * carries on.
+     */
+    public Wave getWave(int tick) {
+        if (waves.isEmpty()) {
+            throw new IllegalStateException("the scheduler has no waves");
+        }
+        long end = 0;
+        for (int w = 0; w < waves.size() - 1; w++) {
+            end += waves.get(w).durationTicks;
+            if (tick <= end) {
+                return waves.get(w);
+            }
+        }
+        return waves.get(waves.size() - 1);
+    }
+
+    /** Returns how many enemies should spawn on the given tick, given how many are alive already. */
+    public int getSpawnCount(int tick, int alive) {
+        Wave wave = getWave(tick);
+        if (tick % wave.spawnInterval != 0) {
+            return 0;
+        }
+        return Math.max(0, Math.min(wave.spawnCount, wave.maxEnemies - alive));
+    }
+
+    /** Getter function for the chance, 1 in this many, of a spawned enemy being a yellow jacket. */
+    public int getYellowJacketChance() {
+        return yellowJacketChance;
+    }
+
+    /** Setter function for the chance, 1 in this many, of a spawned enemy being a yellow jacket. */
+    public void setYellowJacketChance(int yellowJacketChance) {
+        this.yellowJacketChance = yellowJacketChance;
+    }
+
+    /** Getter function for the most upgrades waiting to be picked up at once. */
+    public int getMaxUpgrades() {
+        return maxUpgrades;
+    }
+
+    /** Setter function for the most upgrades waiting to be picked up at once. */
+    public void setMaxUpgrades(int maxUpgrades) {
+        this.maxUpgrades = maxUpgrades;
+    }
+
+    /** Getter function for the chance, 1 in this many, of an upgrade appearing each tick. */
+    public int getUpgradeChance() {
+        return upgradeChance;
+    }
+
+    /** Setter function for the chance, 1 in this many, of an upgrade appearing each tick. */
+    public void setUpgradeChance(int upgradeChance) {
+        this.upgradeChance = upgradeChance;
+    }
+
+    /** Getter function for whether enemies stacked exactly on top of each other are drawn only once. */
+    public boolean isStackedEnemiesDrawnOnce() {
+        return stackedEnemiesDrawnOnce;
+    }
+
+    /** Setter function for whether enemies stacked exactly on top of each other are drawn only once. */
+    public void setStackedEnemiesDrawnOnce(boolean stackedEnemiesDrawnOnce) {
+        this.stackedEnemiesDrawnOnce = stackedEnemiesDrawnOnce;
+    }
+
+    /** One wave of enemies: how long it lasts, how fast enemies spawn and how many can be alive. */
+    static class Wave {
+        // Instance variables
+        private final int durationTicks; // How many ticks the wave lasts, or FOREVER.
+        private final int spawnInterval; // Enemies spawn every this many ticks.
+        private final int spawnCount; // How many enemies spawn each time.
+        private final int maxEnemies; // No more spawn while this many are alive.
+
+        public Wave(int durationTicks, int spawnInterval, int spawnCount, int maxEnemies) {
+            this.durationTicks = durationTicks;
+            this.spawnInterval = spawnInterval;
+            this.spawnCount = spawnCount;
+            this.maxEnemies = maxEnemies;
+        }
+
+        /** Getter function for how many ticks the wave lasts, or FOREVER. */
+        public int getDurationTicks() {
+            return durationTicks;
+        }
+
+        /** Getter function for how many ticks apart enemies spawn. */
+        public int getSpawnInterval() {
+            return spawnInterval;
+        }
+
+        /** Getter function for how many enemies spawn each time. */
+        public int getSpawnCount() {
+            return spawnCount;
+        }
+
+        /** Getter function for how many enemies can be alive before no more spawn. */
+        public int getMaxEnemies() {
+            return maxEnemies;
+        }
+    }
+}
@@ -16,6 +16,12 @@ public class YellowJacket extends Enemy {
         points = 300;
     }
 
+    /** Resets the yellow jacket to a new spawn location with its starting 100 health. */
+    public void reset() {
+        super.reset();
+        health = 100;
+    }
+
     /** Getter function for the dph (damage per hit). */
     public int getDph() {
         return dph;
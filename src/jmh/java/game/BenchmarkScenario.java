@@ -0,0 +1,82 @@
+package game;
+
+import java.util.Random;
+
+/** A fixed arrangement of enemies and bullets that can be put into a game again and again, so every benchmark
+ * invocation sees the same work. Positions come from a fixed seed, so runs can be compared.
+ */
+class BenchmarkScenario {
+    static final int WIDTH = 1280, HEIGHT = 720; // The size of the game RunDefaultGame plays.
+    static final long SEED = 42; // Where objects are placed, the same every run.
+
+    // Instance variables
+    private final int[] enemyType, enemyX, enemyY; // Every enemy's type and center.
+    private final int[] bulletX, bulletY; // Every bullet's center.
+    private final double[] bulletVX, bulletVY; // Every bullet's velocity.
+
+    /** Places the given numbers of enemies and bullets randomly, but the same way every time, below the HUD. */
+    public BenchmarkScenario(int enemyCount, int bulletCount) {
+        Random random = new Random(SEED);
+        int top = HEIGHT / 15;
+        enemyType = new int[enemyCount];
+        enemyX = new int[enemyCount];
+        enemyY = new int[enemyCount];
+        for (int i = 0; i < enemyCount; i++) {
+            enemyType[i] = random.nextInt(10) == 0 ? 1 : 0; // 1 in 10 is a yellow jacket, like in the game
+            enemyX[i] = random.nextInt(WIDTH);
+            enemyY[i] = top + random.nextInt(HEIGHT - top);
+        }
+        bulletX = new int[bulletCount];
+        bulletY = new int[bulletCount];
+        bulletVX = new double[bulletCount];
+        bulletVY = new double[bulletCount];
+        for (int i = 0; i < bulletCount; i++) {
+            double angle = random.nextDouble() * 2 * Math.PI;
+            bulletX[i] = 25 + random.nextInt(WIDTH - 50); // inside the walls, so none leave on the first move
+            bulletY[i] = top + 25 + random.nextInt(HEIGHT - top - 50);
+            bulletVX[i] = Math.sin(angle) * 20;
+            bulletVY[i] = Math.cos(angle) * 20;
+        }
+    }
+
+    /** Replaces the game's enemies and bullets with this scenario's and puts the bee in the middle, healthy. */
+    public void applyTo(Game game) {
+        Bee bee = game.getMainBee();
+        bee.setLocationX(WIDTH / 2);
+        bee.setLocationY(HEIGHT / 2);
+        bee.heal();
+        applyEnemiesTo(game);
+        applyBulletsTo(game);
+    }
+
+    /** Replaces the game's enemies with this scenario's. */
+    public void applyEnemiesTo(Game game) {
+        EntityStore enemies = game.getEnemies();
+        enemies.clear();
+        for (int i = 0; i < enemyType.length; i++) {
+            enemies.add(enemyType[i], enemyX[i], enemyY[i]);
+        }
+    }
+
+    /** Replaces the main bee's bullets with this scenario's. */
+    public void applyBulletsTo(Game game) {
+        EntityStore bullets = game.getMainBee().getBullets();
+        bullets.clear();
+        for (int i = 0; i < bulletX.length; i++) {
+            int b = bullets.add(0, bulletX[i], bulletY[i]);
+            bullets.setVelocity(b, bulletVX[i], bulletVY[i]);
+        }
+    }
+
+    /** Returns the given number of enemies and bullets as standalone GameObjects, placed the same way every time. */
+    public static GameObject[] objects(int enemyCount, int bulletCount) {
+        Random random = new Random(SEED);
+        GameObject[] objects = new GameObject[enemyCount + bulletCount];
+        for (int i = 0; i < objects.length; i++) {
+            objects[i] = i < enemyCount ? new RedWasp() : new Bullet();
+            objects[i].setLocationX(random.nextInt(WIDTH));
+            objects[i].setLocationY(random.nextInt(HEIGHT));
+        }
+        return objects;
+    }
+}
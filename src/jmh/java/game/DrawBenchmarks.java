@@ -0,0 +1,79 @@
+package game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Times Game.draw, the way the game draws every frame, for every combination of enemy and bullet counts: on a
+ * HeadlessCanvas, which draws straight onto an image, and on a SimpleCanvas, which records the frame into a
+ * DrawCommandBuffer and replays it through its CanvasRenderer at render scale 1 or 2. Benchmarks run without a
+ * screen, so the SimpleCanvas replays on the calling thread as it does with active rendering, and the last step,
+ * copying the frame to the window's BufferStrategy, isn't timed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DrawBenchmarks {
+    /** A game with a scenario's enemies and bullets in play, ready to draw. */
+    @State(Scope.Thread)
+    public abstract static class DrawnGame {
+        @Param({"20", "200", "2000"})
+        public int enemyCount; // How many enemies are in play.
+
+        @Param({"30", "300", "3000"})
+        public int bulletCount; // How many bullets are in flight.
+
+        // Instance variables
+        Game game; // The game being drawn.
+
+        @Setup
+        public void setUp() {
+            game = new Game(createCanvas(), BenchmarkScenario.SEED);
+            new BenchmarkScenario(enemyCount, bulletCount).applyTo(game);
+            game.publishSnapshot();
+        }
+
+        /** Returns the canvas the game is drawn on. */
+        abstract GameCanvas createCanvas();
+    }
+
+    /** A game drawn by a HeadlessCanvas. */
+    public static class OnHeadlessCanvas extends DrawnGame {
+        GameCanvas createCanvas() {
+            return new HeadlessCanvas(BenchmarkScenario.WIDTH, BenchmarkScenario.HEIGHT, true);
+        }
+    }
+
+    /** A game drawn by a SimpleCanvas set up the way RunDefaultGame sets it up, at a given render scale. */
+    public static class OnSimpleCanvas extends DrawnGame {
+        @Param({"1", "2"})
+        public int renderScale; // How many buffer pixels across each canvas pixel is drawn with.
+
+        GameCanvas createCanvas() {
+            return new SimpleCanvas(BenchmarkScenario.WIDTH, BenchmarkScenario.HEIGHT, "My Game", true,
+                    renderScale, true, true);
+        }
+    }
+
+    @Benchmark
+    public void headlessCanvas(OnHeadlessCanvas state) {
+        state.game.draw();
+    }
+
+    @Benchmark
+    public void simpleCanvas(OnSimpleCanvas state) {
+        state.game.draw();
+    }
+}
@@ -0,0 +1,118 @@
+package game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Times each stage of a tick (moveBullets, moveEnemies, checkForCollisions, removeCommonEnemies), a whole tick, and
+ * GameObject.overlaps on every pair of objects, for every combination of enemy and bullet counts.
+ *
+ * Stages move and remove objects, so every invocation first puts back what its stage changes, and that is timed
+ * along with the stage: JMH times whole batches of invocations, so timing only the stage would mean reading the
+ * clock around each call, which costs more than the smaller stages do. The reset benchmarks time putting things
+ * back on their own. Subtract resetBullets from moveBullets, resetEnemies from moveEnemies and removeCommonEnemies,
+ * and reset from checkForCollisions and tick to get the cost of each stage.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TickBenchmarks {
+    @Param({"20", "200", "2000"})
+    public int enemyCount; // How many enemies are in play.
+
+    @Param({"30", "300", "3000"})
+    public int bulletCount; // How many bullets are in flight.
+
+    // Instance variables
+    private Game game; // The game being ticked, on a canvas that doesn't draw.
+    private BenchmarkScenario scenario; // Where the enemies and bullets are put before each invocation.
+    private GameObject[] objects; // The same numbers of enemies and bullets as objects, for overlapsAllPairs.
+
+    @Setup
+    public void setUp() {
+        game = new Game(new HeadlessCanvas(BenchmarkScenario.WIDTH, BenchmarkScenario.HEIGHT, false),
+                BenchmarkScenario.SEED);
+        scenario = new BenchmarkScenario(enemyCount, bulletCount);
+        scenario.applyTo(game);
+        objects = BenchmarkScenario.objects(enemyCount, bulletCount);
+    }
+
+    /** Just puts the whole scenario back, as checkForCollisions and tick do before their stage. */
+    @Benchmark
+    public void reset() {
+        scenario.applyTo(game);
+    }
+
+    /** Just puts the bullets back, as moveBullets does before its stage. */
+    @Benchmark
+    public void resetBullets() {
+        scenario.applyBulletsTo(game);
+    }
+
+    /** Just puts the enemies back, as moveEnemies and removeCommonEnemies do before their stage. */
+    @Benchmark
+    public void resetEnemies() {
+        scenario.applyEnemiesTo(game);
+    }
+
+    @Benchmark
+    public void moveBullets() {
+        scenario.applyBulletsTo(game);
+        game.moveBullets();
+    }
+
+    @Benchmark
+    public void moveEnemies() {
+        scenario.applyEnemiesTo(game);
+        game.moveEnemies();
+    }
+
+    @Benchmark
+    public void checkForCollisions() {
+        scenario.applyTo(game);
+        game.checkForCollisions();
+    }
+
+    @Benchmark
+    public void removeCommonEnemies() {
+        scenario.applyEnemiesTo(game);
+        EntityStore enemies = game.getEnemies();
+        for (int i = 0; i < enemies.size(); i += 2) {
+            enemies.health[i] = 0; // half of them died this tick
+        }
+        game.removeCommonEnemies();
+    }
+
+    @Benchmark
+    public void tick() {
+        scenario.applyTo(game);
+        game.tick();
+    }
+
+    /** Tests every pair of objects with GameObject.overlaps, the work the collision grid avoids. */
+    @Benchmark
+    public int overlapsAllPairs() {
+        int touching = 0;
+        for (int i = 0; i < objects.length; i++) {
+            for (int j = i + 1; j < objects.length; j++) {
+                if (objects[i].overlaps(objects[j])) {
+                    touching++;
+                }
+            }
+        }
+        return touching;
+    }
+}